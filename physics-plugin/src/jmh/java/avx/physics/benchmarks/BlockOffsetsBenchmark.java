@@ -0,0 +1,88 @@
+package avx.physics.benchmarks;
+
+import avx.physics.utils.BlockOffsets;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scanning the blocks around a fallen block for chain reaction checks: nested
+ * loops over the whole cube, nested loops skipping positions past the radius
+ * by squared distance, and the precomputed sphere table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockOffsetsBenchmark {
+    
+    private static final int SIZE = 64;
+    
+    @Param({"3", "5", "10"})
+    public int radius;
+    
+    @Param({"0.1", "0.5"})
+    public double density;
+    
+    private byte[] blocks;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        blocks = new byte[SIZE * SIZE * SIZE];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = (byte) (random.nextDouble() < density ? 1 : 0);
+        }
+    }
+    
+    private boolean isPhysicsBlock(int x, int y, int z) {
+        return blocks[(y * SIZE + z) * SIZE + x] != 0;
+    }
+    
+    @Benchmark
+    public void nestedLoops(Blackhole blackhole) {
+        int origin = SIZE / 2;
+        for (int x = -radius; x <= radius; x++) {
+            for (int y = -radius; y <= radius; y++) {
+                for (int z = -radius; z <= radius; z++) {
+                    if (x == 0 && y == 0 && z == 0) continue;
+                    if (isPhysicsBlock(origin + x, origin + y, origin + z)) {
+                        blackhole.consume((int) (Math.sqrt(x * x + y * y + z * z) * 2.0));
+                    }
+                }
+            }
+        }
+    }
+    
+    @Benchmark
+    public void nestedLoopsWithinRadius(Blackhole blackhole) {
+        int origin = SIZE / 2;
+        int radiusSquared = radius * radius;
+        for (int x = -radius; x <= radius; x++) {
+            for (int y = -radius; y <= radius; y++) {
+                for (int z = -radius; z <= radius; z++) {
+                    int squared = x * x + y * y + z * z;
+                    if (squared == 0 || squared > radiusSquared) continue;
+                    if (isPhysicsBlock(origin + x, origin + y, origin + z)) {
+                        blackhole.consume((int) (Math.sqrt(squared) * 2.0));
+                    }
+                }
+            }
+        }
+    }
+    
+    @Benchmark
+    public void sphereTable(Blackhole blackhole) {
+        int origin = SIZE / 2;
+        BlockOffsets offsets = BlockOffsets.sphere(radius);
+        for (int i = 0; i < offsets.size(); i++) {
+            if (isPhysicsBlock(origin + offsets.getX(i), origin + offsets.getY(i), origin + offsets.getZ(i))) {
+                blackhole.consume((int) (offsets.getDistance(i) * 2.0));
+            }
+        }
+    }
+}
\ No newline at end of file
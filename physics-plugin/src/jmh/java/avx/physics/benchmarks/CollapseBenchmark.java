@@ -0,0 +1,92 @@
+package avx.physics.benchmarks;
+
+import avx.physics.data.BlockKey;
+import avx.physics.fake.FakeServer;
+import avx.physics.fake.FakeWorld;
+import avx.physics.fake.HeadlessPhysicsPlugin;
+import avx.physics.fake.Scene;
+import avx.physics.managers.PhysicsManager;
+import avx.physics.managers.StructureManager;
+import avx.physics.utils.BlockOffsets;
+import avx.physics.utils.LongHashSet;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work done right after a structure lost its support: finding the blocks
+ * that no longer hold, and scheduling chain reaction checks around the
+ * broken blocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollapseBenchmark {
+    
+    @Param({"tower", "bridge", "cantilever", "crater"})
+    public String scene;
+    
+    private StructureManager structureManager;
+    private PhysicsManager physicsManager;
+    private World world;
+    private long[] trigger;
+    private long[] candidates;
+    private int chainRadius;
+    
+    @Setup
+    public void setup() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        Scene built = Scene.create(server, scene);
+        built.cut();
+        
+        structureManager = plugin.getStructureManager();
+        physicsManager = plugin.getPhysicsManager();
+        world = built.getWorld().getWorld();
+        trigger = built.getTrigger();
+        candidates = neighbours(built.getWorld(), trigger, plugin);
+        chainRadius = plugin.getConfigManager().getMaxChainDistance();
+    }
+    
+    /**
+     * Physics blocks next to the broken ones, as the break listener would queue them
+     */
+    private static long[] neighbours(FakeWorld world, long[] broken, HeadlessPhysicsPlugin plugin) {
+        LongHashSet keys = new LongHashSet();
+        for (long key : broken) {
+            for (int x = -1; x <= 1; x++) {
+                for (int y = -1; y <= 1; y++) {
+                    for (int z = -1; z <= 1; z++) {
+                        long neighbour = BlockKey.offset(key, x, y, z);
+                        if (plugin.getConfigManager().isPhysicsBlock(world.getType(neighbour))) {
+                            keys.add(neighbour);
+                        }
+                    }
+                }
+            }
+        }
+        return keys.toArray();
+    }
+    
+    @Benchmark
+    public int findUnsupported() {
+        structureManager.clearCache();
+        LongHashSet unsupported = new LongHashSet();
+        structureManager.findUnsupported(world, candidates, unsupported);
+        return unsupported.size();
+    }
+    
+    @Benchmark
+    public int chainReaction() {
+        for (long key : trigger) {
+            physicsManager.scheduleChecksAround(world, key, BlockOffsets.sphere(chainRadius), 0, 2.0);
+        }
+        int scheduled = physicsManager.getScheduledChecksCount();
+        physicsManager.clearAll();
+        return scheduled;
+    }
+}
\ No newline at end of file
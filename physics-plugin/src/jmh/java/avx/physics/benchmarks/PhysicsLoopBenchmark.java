@@ -0,0 +1,55 @@
+package avx.physics.benchmarks;
+
+import avx.physics.fake.FakeServer;
+import avx.physics.fake.HeadlessPhysicsPlugin;
+import avx.physics.fake.Scene;
+import avx.physics.managers.PhysicsManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full collapse through the physics loop: the trigger blocks are broken
+ * and processPhysics runs once per tick until no checks are left.
+ * Each measurement rebuilds the scene, so it is timed as a single shot.
+ * The tick budget is lifted so max-blocks-per-tick alone paces the collapse
+ * and every run does the same work.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhysicsLoopBenchmark {
+    
+    private static final int MAX_TICKS = 2000;
+    
+    @Param({"tower", "bridge", "cantilever", "crater"})
+    public String scene;
+    
+    private FakeServer server;
+    private PhysicsManager physicsManager;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        Scene.create(server, scene).trigger(plugin);
+        physicsManager = plugin.getPhysicsManager();
+        
+        // Counts the ticks scheduled chain reaction checks wait for
+        plugin.getPerformanceManager().start();
+    }
+    
+    @Benchmark
+    public int processPhysics() {
+        int ticks = 0;
+        while (ticks < MAX_TICKS && (physicsManager.getPendingChecksCount() > 0 || physicsManager.getScheduledChecksCount() > 0)) {
+            server.tick();
+            physicsManager.processPhysics();
+            ticks++;
+        }
+        return ticks;
+    }
+}
\ No newline at end of file
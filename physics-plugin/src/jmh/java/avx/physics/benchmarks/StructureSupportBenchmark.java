@@ -0,0 +1,51 @@
+package avx.physics.benchmarks;
+
+import avx.physics.data.BlockKey;
+import avx.physics.fake.FakeServer;
+import avx.physics.fake.HeadlessPhysicsPlugin;
+import avx.physics.fake.Scene;
+import avx.physics.managers.StructureManager;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Support queries against intact structures: answered from an indexed
+ * component, and from scratch after the structure index was cleared.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StructureSupportBenchmark {
+    
+    @Param({"tower", "bridge", "cantilever", "crater"})
+    public String scene;
+    
+    private StructureManager structureManager;
+    private Block probe;
+    
+    @Setup
+    public void setup() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        Scene built = Scene.create(server, scene);
+        long key = built.getProbe();
+        structureManager = plugin.getStructureManager();
+        probe = built.getWorld().getBlockAt(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key));
+    }
+    
+    @Benchmark
+    public boolean hasStructuralSupport() {
+        return structureManager.hasStructuralSupport(probe);
+    }
+    
+    @Benchmark
+    public boolean hasStructuralSupportCold() {
+        structureManager.clearCache();
+        return structureManager.hasStructuralSupport(probe);
+    }
+}
\ No newline at end of file
@@ -5,9 +5,13 @@ import avx.physics.listeners.*;
 import avx.physics.managers.*;
 import avx.physics.utils.ConfigManager;
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.io.File;
+
 public class PhysicsPlugin extends JavaPlugin {
     
     private static PhysicsPlugin instance;
@@ -16,21 +20,26 @@ public class PhysicsPlugin extends JavaPlugin {
     private StructureManager structureManager;
     private GravityManager gravityManager;
     private PerformanceManager performanceManager;
+    private EffectsManager effectsManager;
     private BukkitTask physicsTask;
+    private BukkitTask cleanupTask;
+    private BukkitTask gravityTask;
+    private BukkitTask effectsTask;
+    private BukkitTask sweepTask;
+    
+    public PhysicsPlugin() {
+    }
+    
+    /**
+     * Create the plugin outside of a server's plugin loader, for benchmarks and simulations
+     */
+    protected PhysicsPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
     
     @Override
     public void onEnable() {
-        instance = this;
-        
-        // Initialize managers
-        this.configManager = new ConfigManager(this);
-        this.performanceManager = new PerformanceManager(this);
-        this.structureManager = new StructureManager(this);
-        this.gravityManager = new GravityManager(this);
-        this.physicsManager = new PhysicsManager(this);
-        
-        // Load configuration
-        configManager.loadConfig();
+        createManagers();
         
         // Register event listeners
         registerListeners();
@@ -38,8 +47,7 @@ public class PhysicsPlugin extends JavaPlugin {
         // Register commands
         registerCommands();
         
-        // Start physics calculations
-        startPhysicsLoop();
+        startTasks();
         
         getLogger().info("Realistic Physics Plugin enabled!");
         getLogger().info("Physics system: " + (configManager.isEnabled() ? "ENABLED" : "DISABLED"));
@@ -52,18 +60,96 @@ public class PhysicsPlugin extends JavaPlugin {
             physicsTask.cancel();
         }
         
+        if (cleanupTask != null && !cleanupTask.isCancelled()) {
+            cleanupTask.cancel();
+        }
+        
+        if (gravityTask != null && !gravityTask.isCancelled()) {
+            gravityTask.cancel();
+        }
+        
+        if (effectsTask != null && !effectsTask.isCancelled()) {
+            effectsTask.cancel();
+        }
+        
+        if (sweepTask != null && !sweepTask.isCancelled()) {
+            sweepTask.cancel();
+        }
+        
+        if (performanceManager != null) {
+            performanceManager.stop();
+        }
+        
         // Clear any pending physics calculations
         if (physicsManager != null) {
             physicsManager.clearAll();
         }
         
+        if (effectsManager != null) {
+            effectsManager.clear();
+        }
+        
         getLogger().info("Realistic Physics Plugin disabled!");
     }
     
-    private void registerListeners() {
+    /**
+     * Create the managers and load the configuration, without registering
+     * listeners, commands or tasks with the server
+     */
+    protected void createManagers() {
+        instance = this;
+        
+        // Initialize managers
+        this.configManager = new ConfigManager(this);
+        this.performanceManager = new PerformanceManager(this);
+        this.structureManager = new StructureManager(this);
+        this.gravityManager = new GravityManager(this);
+        this.effectsManager = new EffectsManager(this);
+        this.physicsManager = new PhysicsManager(this);
+        
+        // Load configuration
+        configManager.loadConfig();
+    }
+    
+    /**
+     * Start tick sampling, the physics loop, falling block gravity and
+     * sweeping, effects and cache cleanup
+     */
+    protected void startTasks() {
+        performanceManager.start();
+        startPhysicsLoop();
+        
+        // Drop structure sections nobody queried for a while
+        cleanupTask = Bukkit.getScheduler().runTaskTimer(this, structureManager::cleanupCache, 200L, 200L);
+        
+        // Custom gravity for the plugin's falling blocks, all of them in one pass per tick
+        gravityTask = Bukkit.getScheduler().runTaskTimer(this, physicsManager::tickFallingEntities, 1L, 1L);
+        
+        // Particles and sounds collected during the last tick, one burst per chunk
+        effectsTask = Bukkit.getScheduler().runTaskTimer(this, effectsManager::flush, 1L, 1L);
+        
+        // Falling blocks are forgotten when they land or leave the world; this
+        // catches the few that go without an event
+        sweepTask = Bukkit.getScheduler().runTaskTimer(this, physicsManager::sweepFallingEntities, 20L, 20L);
+    }
+    
+    /**
+     * Current time in nanoseconds, for tick sampling and the physics time budget
+     */
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+    
+    protected void registerListeners() {
         getServer().getPluginManager().registerEvents(new BlockPhysicsListener(this), this);
         getServer().getPluginManager().registerEvents(new PlayerInteractionListener(this), this);
         getServer().getPluginManager().registerEvents(new EntityListener(this), this);
+        
+        // Real tick durations and entity removal are only available on Paper
+        if (performanceManager.isPaperServer()) {
+            getServer().getPluginManager().registerEvents(new ServerTickListener(this), this);
+            getServer().getPluginManager().registerEvents(new EntityRemoveListener(this), this);
+        }
     }
     
     private void registerCommands() {
@@ -90,6 +176,9 @@ public class PhysicsPlugin extends JavaPlugin {
         // Reload configuration
         configManager.loadConfig();
         
+        // Material lists and support settings may have changed
+        structureManager.clearCache();
+        
         // Restart physics loop
         startPhysicsLoop();
         
@@ -120,4 +209,8 @@ public class PhysicsPlugin extends JavaPlugin {
     public PerformanceManager getPerformanceManager() {
         return performanceManager;
     }
+    
+    public EffectsManager getEffectsManager() {
+        return effectsManager;
+    }
 } 
\ No newline at end of file
@@ -42,14 +42,23 @@ public class GravityCommand implements CommandExecutor, TabCompleter {
         try {
             double strength = Double.parseDouble(args[0]);
             double radius = args.length > 1 ? Double.parseDouble(args[1]) : 10.0;
+            int priority = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+            
+            if (!(radius > 0)) {
+                player.sendMessage("§cRadius must be greater than 0!");
+                return true;
+            }
             
             Location location = player.getLocation();
-            plugin.getGravityManager().setGravityZone(location, radius, strength);
+            plugin.getGravityManager().setGravityZone(location, radius, strength, priority);
             
             player.sendMessage("§a[Gravity] Created gravity zone:");
             player.sendMessage("§7- Location: " + formatLocation(location));
             player.sendMessage("§7- Strength: §b" + strength + "x");
             player.sendMessage("§7- Radius: §b" + radius + " blocks");
+            if (priority != 0) {
+                player.sendMessage("§7- Priority: §b" + priority);
+            }
             
             // Give feedback about the gravity effect
             if (strength > 1.0) {
@@ -61,7 +70,7 @@ public class GravityCommand implements CommandExecutor, TabCompleter {
             }
             
         } catch (NumberFormatException e) {
-            player.sendMessage("§cInvalid number format! Use: /gravity <strength> [radius]");
+            player.sendMessage("§cInvalid number format! Use: /gravity <strength> [radius] [priority]");
             player.sendMessage("§7Examples:");
             player.sendMessage("§7- /gravity 2.0 §8(double gravity)");
             player.sendMessage("§7- /gravity 0.5 15 §8(half gravity, 15 block radius)");
@@ -73,7 +82,7 @@ public class GravityCommand implements CommandExecutor, TabCompleter {
     
     private void sendHelp(Player player) {
         player.sendMessage("§6=== Gravity Zone Commands ===");
-        player.sendMessage("§e/gravity <strength> [radius] §7- Create gravity zone");
+        player.sendMessage("§e/gravity <strength> [radius] [priority] §7- Create gravity zone");
         player.sendMessage("§7");
         player.sendMessage("§7Strength examples:");
         player.sendMessage("§7- §b1.0 §7= Normal gravity");
@@ -83,6 +92,7 @@ public class GravityCommand implements CommandExecutor, TabCompleter {
         player.sendMessage("§7- §b-1.0 §7= Anti-gravity (upward)");
         player.sendMessage("§7");
         player.sendMessage("§7Default radius: 10 blocks");
+        player.sendMessage("§7Where zones overlap, the highest priority (default 0) wins, then the newest");
         
         // Show current gravity at player location
         double currentGravity = plugin.getGravityManager().getGravityStrength(player.getLocation());
@@ -116,6 +126,11 @@ public class GravityCommand implements CommandExecutor, TabCompleter {
             return Arrays.asList("5", "10", "15", "20", "25");
         }
         
+        if (args.length == 3) {
+            // Suggest priorities
+            return Arrays.asList("0", "1", "10");
+        }
+        
         return new ArrayList<>();
     }
 } 
\ No newline at end of file
@@ -1,6 +1,9 @@
 package avx.physics.commands;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.managers.PerformanceManager;
+import avx.physics.structure.SectionCache;
+import avx.physics.utils.TickSampler;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -103,6 +106,7 @@ public class PhysicsCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§7Physics Blocks: §b" + plugin.getConfigManager().getPhysicsBlocks().size());
         sender.sendMessage("§7Support Blocks: §b" + plugin.getConfigManager().getSupportBlocks().size());
         sender.sendMessage("§7Pending Checks: §e" + plugin.getPhysicsManager().getPendingChecksCount());
+        sender.sendMessage("§7Scheduled Checks: §e" + plugin.getPhysicsManager().getScheduledChecksCount());
         sender.sendMessage("§7Falling Blocks: §e" + plugin.getPhysicsManager().getFallingBlocksCount());
         sender.sendMessage("§7Cache Size: §e" + plugin.getStructureManager().getCacheSize());
         sender.sendMessage("§7Gravity Zones: §b" + plugin.getGravityManager().getGravityZones().size());
@@ -124,6 +128,49 @@ public class PhysicsCommand implements CommandExecutor, TabCompleter {
         String stats = plugin.getPerformanceManager().getPerformanceStats();
         sender.sendMessage("§6[Physics] Performance Stats:");
         sender.sendMessage("§7" + stats);
+        PerformanceManager performance = plugin.getPerformanceManager();
+        sender.sendMessage(String.format(
+            "§7TPS (5s/1m/5m): §e%.2f §7/ §e%.2f §7/ §e%.2f",
+            performance.getTPS(TickSampler.WINDOW_5S),
+            performance.getTPS(TickSampler.WINDOW_1M),
+            performance.getTPS(TickSampler.WINDOW_5M)
+        ));
+        sender.sendMessage(String.format(
+            "§7MSPT (avg/p50/p95/p99): §e%.2f §7/ §e%.2f §7/ §e%.2f §7/ §e%.2f",
+            performance.getAverageTickTime(),
+            performance.getMsptPercentile(50),
+            performance.getMsptPercentile(95),
+            performance.getMsptPercentile(99)
+        ));
+        SectionCache cache = plugin.getStructureManager().getSectionCache();
+        sender.sendMessage(String.format(
+            "§7Structure Cache: §e%d §7sections | §e%.1f§7/§e%.1f §7MB | §e%.1f%% §7hits | §e%d §7evicted",
+            cache.size(),
+            cache.getUsedBytes() / (1024.0 * 1024.0),
+            cache.getMaxBytes() / (1024.0 * 1024.0),
+            cache.getHitRate() * 100,
+            cache.getEvictions()
+        ));
+        sender.sendMessage(String.format(
+            "§7Checks: §e%d §7queued | §e%d §7coalesced | §e%d §7dropped | §e%d §7processed",
+            plugin.getPhysicsManager().getChecksEnqueued(),
+            plugin.getPhysicsManager().getChecksCoalesced(),
+            plugin.getPhysicsManager().getChecksDropped(),
+            plugin.getPhysicsManager().getChecksProcessed()
+        ));
+        sender.sendMessage(String.format(
+            "§7Falling: §e%d §7entities now | §e%d §7spawned | §e%d §7moved without entity | §e%d §7fell out of the world",
+            plugin.getPhysicsManager().getFallingEntitiesCount(),
+            plugin.getPhysicsManager().getFallingEntitiesSpawned(),
+            plugin.getPhysicsManager().getBlocksRelocated(),
+            plugin.getPhysicsManager().getBlocksLost()
+        ));
+        sender.sendMessage(String.format(
+            "§7Effects: §e%d §7requested | §e%d §7bursts played | §e%d §7unseen or over budget",
+            plugin.getEffectsManager().getEffectsRequested(),
+            plugin.getEffectsManager().getBurstsPlayed(),
+            plugin.getEffectsManager().getEffectsSkipped()
+        ));
         
         double loadFactor = plugin.getPerformanceManager().getLoadFactor();
         String loadColor = loadFactor <= 0.3 ? "§a" : loadFactor <= 0.6 ? "§e" : "§c";
@@ -139,7 +186,7 @@ public class PhysicsCommand implements CommandExecutor, TabCompleter {
     
     private void handleClear(CommandSender sender) {
         plugin.getPhysicsManager().clearAll();
-        plugin.getStructureManager().cleanupCache();
+        plugin.getStructureManager().clearCache();
         plugin.getGravityManager().clearAllZones();
         
         sender.sendMessage("§a[Physics] Cleared all physics data, cache, and gravity zones.");
@@ -1,6 +1,7 @@
 package avx.physics.commands;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.structure.AreaAnalysis;
 import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -11,7 +12,6 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 public class StructureCommand implements CommandExecutor, TabCompleter {
     
@@ -54,45 +54,48 @@ public class StructureCommand implements CommandExecutor, TabCompleter {
         player.sendMessage("§7Center: " + formatLocation(center));
         player.sendMessage("§7Radius: §b" + radius + " blocks");
         
-        // Analyze the area
-        Map<Location, Double> analysis = plugin.getStructureManager().analyzeArea(center, radius);
+        // Analyze the area off the main thread; results arrive once it is done
+        plugin.getStructureManager().analyzeAreaAsync(center, radius, progress -> {
+            if (player.isOnline()) {
+                player.sendMessage(String.format("§7Analyzing... §b%.0f%%", progress * 100));
+            }
+        }, analysis -> {
+            if (player.isOnline()) {
+                sendResults(player, center, analysis);
+            }
+        });
         
+        return true;
+    }
+    
+    private void sendResults(Player player, Location center, AreaAnalysis analysis) {
         if (analysis.isEmpty()) {
             player.sendMessage("§7No physics-enabled blocks found in this area.");
-            return true;
+            return;
         }
         
-        // Calculate statistics
-        double totalIntegrity = 0;
-        int stableBlocks = 0;
-        int unstableBlocks = 0;
-        int criticalBlocks = 0;
-        
-        for (double integrity : analysis.values()) {
-            totalIntegrity += integrity;
-            
-            if (integrity >= 75) {
-                stableBlocks++;
-            } else if (integrity >= 25) {
-                unstableBlocks++;
-            } else {
-                criticalBlocks++;
-            }
-        }
-        
-        double averageIntegrity = totalIntegrity / analysis.size();
+        double averageIntegrity = analysis.getAverageIntegrity();
+        int criticalBlocks = analysis.getCriticalBlocks();
         
         // Display results
         player.sendMessage("§6=== Structural Analysis Results ===");
-        player.sendMessage("§7Total blocks analyzed: §b" + analysis.size());
+        player.sendMessage("§7Total blocks analyzed: §b" + analysis.getBlockCount());
         player.sendMessage("§7Average integrity: §" + getIntegrityColor(averageIntegrity) + 
                           String.format("%.1f%%", averageIntegrity));
         
         player.sendMessage("§7Block stability:");
-        player.sendMessage("§a  Stable (75%+): §f" + stableBlocks);
-        player.sendMessage("§e  Unstable (25-75%): §f" + unstableBlocks);
+        player.sendMessage("§a  Stable (75%+): §f" + analysis.getStableBlocks());
+        player.sendMessage("§e  Unstable (25-75%): §f" + analysis.getUnstableBlocks());
         player.sendMessage("§c  Critical (<25%): §f" + criticalBlocks);
         
+        // Integrity distribution in steps of 10%, lowest first
+        StringBuilder distribution = new StringBuilder("§7Distribution (0-100%):");
+        for (int bucket = 0; bucket < AreaAnalysis.HISTOGRAM_BUCKETS; bucket++) {
+            double bucketIntegrity = bucket * 100.0 / AreaAnalysis.HISTOGRAM_BUCKETS;
+            distribution.append(" §").append(getIntegrityColor(bucketIntegrity)).append(analysis.getHistogramCount(bucket));
+        }
+        player.sendMessage(distribution.toString());
+        
         // Warning for critical structures
         if (criticalBlocks > 0) {
             player.sendMessage("§c⚠ Warning: " + criticalBlocks + " blocks may collapse!");
@@ -110,8 +113,7 @@ public class StructureCommand implements CommandExecutor, TabCompleter {
         // Performance info
         int cacheSize = plugin.getStructureManager().getCacheSize();
         player.sendMessage("§7Structure cache size: §b" + cacheSize + " entries");
-        
-        return true;
+        player.sendMessage(String.format("§7Analysis time: §b%.1fms", analysis.getElapsedNanos() / 1_000_000.0));
     }
     
     private String formatLocation(Location loc) {
@@ -0,0 +1,91 @@
+package avx.physics.data;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+/**
+ * Packs block coordinates into a single primitive long.
+ *
+ * Layout matches the vanilla block position encoding: 26 bits of X,
+ * 26 bits of Z and 12 bits of Y. Keys do not carry a world, so
+ * collections keyed by them are partitioned per world by their owners.
+ */
+public final class BlockKey {
+    
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+    private static final int X_SHIFT = Y_BITS + XZ_BITS;
+    private static final int Z_SHIFT = Y_BITS;
+    
+    private BlockKey() {
+    }
+    
+    public static long pack(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+    }
+    
+    public static long of(Location location) {
+        return pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    public static long of(Block block) {
+        return pack(block.getX(), block.getY(), block.getZ());
+    }
+    
+    public static int getX(long key) {
+        return (int) (key >> X_SHIFT);
+    }
+    
+    public static int getY(long key) {
+        return (int) (key << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+    
+    public static int getZ(long key) {
+        return (int) (key << (64 - X_SHIFT) >> (64 - XZ_BITS));
+    }
+    
+    /**
+     * Get the key of the block at the given offset from another key
+     */
+    public static long offset(long key, int dx, int dy, int dz) {
+        return pack(getX(key) + dx, getY(key) + dy, getZ(key) + dz);
+    }
+    
+    /**
+     * Squared euclidean distance between two block keys
+     */
+    public static int distanceSquared(long a, long b) {
+        int dx = getX(a) - getX(b);
+        int dy = getY(a) - getY(b);
+        int dz = getZ(a) - getZ(b);
+        return dx * dx + dy * dy + dz * dz;
+    }
+    
+    /**
+     * Pack chunk coordinates into a long, for collections keyed by chunk
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Get the key of the chunk containing a block key
+     */
+    public static long chunkKey(long key) {
+        return chunkKey(getX(key) >> 4, getZ(key) >> 4);
+    }
+    
+    public static int chunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+    
+    public static int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+    
+    public static String toString(long key) {
+        return getX(key) + "," + getY(key) + "," + getZ(key);
+    }
+}
\ No newline at end of file
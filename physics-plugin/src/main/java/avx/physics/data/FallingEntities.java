@@ -0,0 +1,163 @@
+package avx.physics.data;
+
+import avx.physics.utils.LongObjectHashMap;
+import org.bukkit.entity.FallingBlock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Falling block entities spawned by the plugin in one world, counted per
+ * chunk and per block column they were spawned in, and keyed by UUID so
+ * entities of other plugins and vanilla ones are told apart.
+ *
+ * An entity is forgotten with {@link #remove} as soon as an event says it
+ * landed or left the world; {@link #prune} catches the ones that went
+ * without an event. Both report the block key the entity was spawned at.
+ * Not thread-safe.
+ */
+public class FallingEntities {
+    
+    private final List<Entry> entities = new ArrayList<>();
+    private final Map<UUID, Entry> byId = new HashMap<>();
+    private final LongObjectHashMap<int[]> chunkCounts = new LongObjectHashMap<>();
+    private final LongObjectHashMap<int[]> columnCounts = new LongObjectHashMap<>();
+    
+    /**
+     * Track an entity spawned at the given block key
+     */
+    public void add(FallingBlock entity, long key) {
+        Entry entry = new Entry(entity, key, BlockKey.chunkKey(key), columnKey(key));
+        entities.add(entry);
+        byId.put(entity.getUniqueId(), entry);
+        increment(chunkCounts, entry.chunkKey);
+        increment(columnCounts, entry.columnKey);
+    }
+    
+    /**
+     * Forget an entity that landed or left the world
+     *
+     * @param removed receives the block key the entity was spawned at
+     * @return false if the entity was not tracked
+     */
+    public boolean remove(UUID id, LongConsumer removed) {
+        Entry entry = byId.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        // Dropped from the list on the next prune
+        entry.removed = true;
+        forget(entry, removed);
+        return true;
+    }
+    
+    /**
+     * Forget the entities that are gone without being removed
+     *
+     * @param removed receives the block key each of them was spawned at
+     */
+    public void prune(LongConsumer removed) {
+        int kept = 0;
+        for (Entry entry : entities) {
+            if (entry.removed) {
+                continue;
+            }
+            if (entry.entity.isValid()) {
+                entities.set(kept++, entry);
+                continue;
+            }
+            
+            byId.remove(entry.entity.getUniqueId());
+            forget(entry, removed);
+        }
+        entities.subList(kept, entities.size()).clear();
+    }
+    
+    private void forget(Entry entry, LongConsumer removed) {
+        decrement(chunkCounts, entry.chunkKey);
+        decrement(columnCounts, entry.columnKey);
+        removed.accept(entry.originKey);
+    }
+    
+    private static void increment(LongObjectHashMap<int[]> counts, long key) {
+        int[] count = counts.get(key);
+        if (count == null) {
+            count = new int[1];
+            counts.put(key, count);
+        }
+        count[0]++;
+    }
+    
+    private static void decrement(LongObjectHashMap<int[]> counts, long key) {
+        int[] count = counts.get(key);
+        if (--count[0] == 0) {
+            counts.remove(key);
+        }
+    }
+    
+    private static long columnKey(long key) {
+        return BlockKey.pack(BlockKey.getX(key), 0, BlockKey.getZ(key));
+    }
+    
+    /**
+     * Check if another entity may be spawned at the given block key
+     */
+    public boolean hasRoom(long key, int maxPerWorld, int maxPerChunk) {
+        if (byId.size() >= maxPerWorld) {
+            return false;
+        }
+        int[] count = chunkCounts.get(BlockKey.chunkKey(key));
+        return count == null || count[0] < maxPerChunk;
+    }
+    
+    /**
+     * Check if an entity spawned in the block column of the given key may
+     * still be in the air
+     */
+    public boolean isColumnFalling(long key) {
+        return columnCounts.containsKey(columnKey(key));
+    }
+    
+    /**
+     * Check if an entity was spawned by the plugin and has not been removed yet
+     */
+    public boolean contains(UUID id) {
+        return byId.containsKey(id);
+    }
+    
+    /**
+     * Pass every entity still in the world to the action
+     */
+    public void forEach(Consumer<FallingBlock> action) {
+        for (Entry entry : entities) {
+            if (!entry.removed && entry.entity.isValid()) {
+                action.accept(entry.entity);
+            }
+        }
+    }
+    
+    public int size() {
+        return byId.size();
+    }
+    
+    private static final class Entry {
+        
+        final FallingBlock entity;
+        final long originKey;
+        final long chunkKey;
+        final long columnKey;
+        boolean removed;
+        
+        Entry(FallingBlock entity, long originKey, long chunkKey, long columnKey) {
+            this.entity = entity;
+            this.originKey = originKey;
+            this.chunkKey = chunkKey;
+            this.columnKey = columnKey;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package avx.physics.data;
+
+/**
+ * A sphere of custom gravity around a block, in one world.
+ *
+ * Where zones overlap the one with the highest priority applies, and among
+ * equal priorities the one created last.
+ */
+public final class GravityZone {
+    
+    private final int centerX;
+    private final int centerY;
+    private final int centerZ;
+    private final double radius;
+    private final double radiusSquared;
+    private final double strength;
+    private final int priority;
+    private final long sequence;
+    
+    public GravityZone(int centerX, int centerY, int centerZ, double radius, double strength, int priority, long sequence) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.radiusSquared = radius * radius;
+        this.strength = strength;
+        this.priority = priority;
+        this.sequence = sequence;
+    }
+    
+    /**
+     * Check if a point is within the zone, measured from the center of its block
+     */
+    public boolean contains(double x, double y, double z) {
+        double dx = x - (centerX + 0.5);
+        double dy = y - (centerY + 0.5);
+        double dz = z - (centerZ + 0.5);
+        return dx * dx + dy * dy + dz * dz <= radiusSquared;
+    }
+    
+    /**
+     * Check if this zone applies rather than another one covering the same point
+     */
+    public boolean outranks(GravityZone other) {
+        return priority != other.priority ? priority > other.priority : sequence > other.sequence;
+    }
+    
+    public int getCenterX() {
+        return centerX;
+    }
+    
+    public int getCenterY() {
+        return centerY;
+    }
+    
+    public int getCenterZ() {
+        return centerZ;
+    }
+    
+    /**
+     * Packed key of the center block
+     */
+    public long getCenterKey() {
+        return BlockKey.pack(centerX, centerY, centerZ);
+    }
+    
+    public double getRadius() {
+        return radius;
+    }
+    
+    public double getStrength() {
+        return strength;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    @Override
+    public String toString() {
+        return "GravityZone{" +
+               "center=" + centerX + "," + centerY + "," + centerZ +
+               ", radius=" + radius +
+               ", strength=" + strength +
+               ", priority=" + priority +
+               '}';
+    }
+}
\ No newline at end of file
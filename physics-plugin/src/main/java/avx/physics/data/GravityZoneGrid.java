@@ -0,0 +1,132 @@
+package avx.physics.data;
+
+import avx.physics.utils.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gravity zones of one world, bucketed in a grid of 16x16 block columns.
+ *
+ * Each zone is listed in every cell its horizontal bounding square touches,
+ * so a lookup only tests the few zones near the point. Zones covering more
+ * than {@value #MAX_CELLS_PER_ZONE} cells are kept in a separate list tested
+ * on every lookup instead. Zones are keyed by their center block; a new zone
+ * on the same block replaces the old one. Not thread-safe.
+ */
+public class GravityZoneGrid {
+    
+    private static final int CELL_SHIFT = 4;
+    private static final int MAX_CELLS_PER_ZONE = 256;
+    
+    private final LongObjectHashMap<GravityZone> zones = new LongObjectHashMap<>();
+    private final LongObjectHashMap<List<GravityZone>> cells = new LongObjectHashMap<>();
+    private final List<GravityZone> largeZones = new ArrayList<>();
+    
+    /**
+     * Add a zone, replacing any zone centered on the same block
+     *
+     * @return the replaced zone, or null
+     */
+    public GravityZone add(GravityZone zone) {
+        GravityZone replaced = remove(zone.getCenterKey());
+        zones.put(zone.getCenterKey(), zone);
+        
+        int[] bounds = getCellBounds(zone);
+        long cellCount = (long) (bounds[2] - bounds[0] + 1) * (bounds[3] - bounds[1] + 1);
+        if (cellCount > MAX_CELLS_PER_ZONE) {
+            largeZones.add(zone);
+            return replaced;
+        }
+        
+        for (int cellX = bounds[0]; cellX <= bounds[2]; cellX++) {
+            for (int cellZ = bounds[1]; cellZ <= bounds[3]; cellZ++) {
+                long cellKey = BlockKey.chunkKey(cellX, cellZ);
+                List<GravityZone> cell = cells.get(cellKey);
+                if (cell == null) {
+                    cell = new ArrayList<>(2);
+                    cells.put(cellKey, cell);
+                }
+                cell.add(zone);
+            }
+        }
+        return replaced;
+    }
+    
+    /**
+     * Remove the zone centered on a block
+     *
+     * @return the removed zone, or null if there was none
+     */
+    public GravityZone remove(long centerKey) {
+        GravityZone zone = zones.remove(centerKey);
+        if (zone == null) {
+            return null;
+        }
+        if (largeZones.remove(zone)) {
+            return zone;
+        }
+        
+        int[] bounds = getCellBounds(zone);
+        for (int cellX = bounds[0]; cellX <= bounds[2]; cellX++) {
+            for (int cellZ = bounds[1]; cellZ <= bounds[3]; cellZ++) {
+                long cellKey = BlockKey.chunkKey(cellX, cellZ);
+                List<GravityZone> cell = cells.get(cellKey);
+                cell.remove(zone);
+                if (cell.isEmpty()) {
+                    cells.remove(cellKey);
+                }
+            }
+        }
+        return zone;
+    }
+    
+    /**
+     * Get the zone that applies at a point, or null if no zone covers it
+     */
+    public GravityZone find(double x, double y, double z) {
+        GravityZone best = null;
+        List<GravityZone> cell = cells.get(BlockKey.chunkKey(
+            (int) Math.floor(x) >> CELL_SHIFT, (int) Math.floor(z) >> CELL_SHIFT));
+        if (cell != null) {
+            for (GravityZone zone : cell) {
+                if (zone.contains(x, y, z) && (best == null || zone.outranks(best))) {
+                    best = zone;
+                }
+            }
+        }
+        for (GravityZone zone : largeZones) {
+            if (zone.contains(x, y, z) && (best == null || zone.outranks(best))) {
+                best = zone;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Cells touched by the bounding square of a zone, as min x, min z, max x, max z
+     */
+    private static int[] getCellBounds(GravityZone zone) {
+        double radius = zone.getRadius();
+        return new int[]{
+            (int) Math.floor(zone.getCenterX() + 0.5 - radius) >> CELL_SHIFT,
+            (int) Math.floor(zone.getCenterZ() + 0.5 - radius) >> CELL_SHIFT,
+            (int) Math.floor(zone.getCenterX() + 0.5 + radius) >> CELL_SHIFT,
+            (int) Math.floor(zone.getCenterZ() + 0.5 + radius) >> CELL_SHIFT
+        };
+    }
+    
+    public List<GravityZone> getZones() {
+        List<GravityZone> list = new ArrayList<>(zones.size());
+        zones.forEach((key, zone) -> list.add(zone));
+        return list;
+    }
+    
+    public int size() {
+        return zones.size();
+    }
+    
+    public boolean isEmpty() {
+        return zones.isEmpty();
+    }
+}
\ No newline at end of file
@@ -1,13 +1,20 @@
 package avx.physics.listeners;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongHashSet;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.*;
 import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.List;
 
 public class BlockPhysicsListener implements Listener {
     
@@ -55,11 +62,7 @@ public class BlockPhysicsListener implements Listener {
             return;
         }
         
-        // Check all destroyed blocks and their surroundings
-        for (Block destroyedBlock : event.blockList()) {
-            checkSurroundingBlocks(destroyedBlock);
-            plugin.getStructureManager().invalidateCache(destroyedBlock.getLocation());
-        }
+        handleExplosion(block.getWorld(), event.blockList());
     }
     
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -69,11 +72,7 @@ public class BlockPhysicsListener implements Listener {
             return;
         }
         
-        // Check all destroyed blocks and their surroundings
-        for (Block destroyedBlock : event.blockList()) {
-            checkSurroundingBlocks(destroyedBlock);
-            plugin.getStructureManager().invalidateCache(destroyedBlock.getLocation());
-        }
+        handleExplosion(event.getLocation().getWorld(), event.blockList());
     }
     
     @EventHandler(priority = EventPriority.HIGH)
@@ -86,12 +85,12 @@ public class BlockPhysicsListener implements Listener {
         }
         
         // Check if this block should have custom physics
-        if (plugin.getConfigManager().getPhysicsBlocks().contains(block.getType())) {
+        if (plugin.getConfigManager().isPhysicsBlock(block.getType())) {
             // Cancel vanilla physics for this block
             event.setCancelled(true);
             
             // Add to our physics queue
-            plugin.getPhysicsManager().addPendingPhysicsCheck(block.getLocation());
+            plugin.getPhysicsManager().addPendingPhysicsCheck(block);
         }
     }
     
@@ -100,9 +99,86 @@ public class BlockPhysicsListener implements Listener {
         // Handle liquid flow affecting structure
         Block to = event.getToBlock();
         
-        if (plugin.getConfigManager().getPhysicsBlocks().contains(to.getType())) {
-            plugin.getPhysicsManager().addPendingPhysicsCheck(to.getLocation());
+        if (plugin.getConfigManager().isPhysicsBlock(to.getType())) {
+            plugin.getPhysicsManager().addPendingPhysicsCheck(to);
         }
+        plugin.getStructureManager().invalidateCache(to);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        handlePiston(event.getBlock(), event.getBlocks());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        handlePiston(event.getBlock(), event.getBlocks());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        handleRemoved(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        handleRemoved(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        handleRemoved(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        plugin.getStructureManager().invalidateCache(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        // Indexed sections of unloaded chunks would go stale
+        plugin.getStructureManager().unloadChunk(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        plugin.getStructureManager().unloadWorld(event.getWorld());
+    }
+    
+    /**
+     * Check the blocks around a block that burnt, decayed or faded away, like a broken one
+     */
+    private void handleRemoved(Block block) {
+        if (!plugin.getConfigManager().isWorldEnabled(block.getWorld().getName())) {
+            return;
+        }
+        checkSurroundingBlocks(block);
+        plugin.getStructureManager().invalidateCache(block);
+    }
+    
+    /**
+     * Invalidate the structure cache over the blocks a piston moves, the
+     * positions they move to and the piston head
+     */
+    private void handlePiston(Block piston, List<Block> moved) {
+        int minX = piston.getX();
+        int minY = piston.getY();
+        int minZ = piston.getZ();
+        int maxX = minX;
+        int maxY = minY;
+        int maxZ = minZ;
+        for (Block block : moved) {
+            minX = Math.min(minX, block.getX());
+            minY = Math.min(minY, block.getY());
+            minZ = Math.min(minZ, block.getZ());
+            maxX = Math.max(maxX, block.getX());
+            maxY = Math.max(maxY, block.getY());
+            maxZ = Math.max(maxZ, block.getZ());
+        }
+        // Every block moves by one, so one block around covers where they end up
+        plugin.getStructureManager().invalidateCache(piston.getWorld(),
+            minX - 1, minY - 1, minZ - 1, maxX + 1, maxY + 1, maxZ + 1);
     }
     
     private void checkSurroundingBlocks(Block centerBlock) {
@@ -114,15 +190,72 @@ public class BlockPhysicsListener implements Listener {
                     
                     Block relative = centerBlock.getRelative(x, y, z);
                     
-                    // Only check blocks that have physics enabled
-                    if (plugin.getConfigManager().getPhysicsBlocks().contains(relative.getType())) {
-                        plugin.getPhysicsManager().addPendingPhysicsCheck(relative.getLocation());
+                    // Only check blocks that have physics enabled; blocks next to a
+                    // direct change are checked ahead of queued chain reactions
+                    if (plugin.getConfigManager().isPhysicsBlock(relative.getType())) {
+                        plugin.getPhysicsManager().addPendingPhysicsCheck(relative, true);
                     }
                 }
             }
         }
     }
     
+    /**
+     * Check the blocks around a crater and invalidate the structure cache
+     * over it. Each block next to the crater is checked once, however many
+     * destroyed blocks it touches, and the cache is invalidated once per
+     * section over the crater's bounding box.
+     */
+    private void handleExplosion(World world, List<Block> destroyed) {
+        if (destroyed.isEmpty()) {
+            return;
+        }
+        
+        LongHashSet crater = new LongHashSet(destroyed.size());
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (Block block : destroyed) {
+            crater.add(BlockKey.of(block));
+            minX = Math.min(minX, block.getX());
+            minY = Math.min(minY, block.getY());
+            minZ = Math.min(minZ, block.getZ());
+            maxX = Math.max(maxX, block.getX());
+            maxY = Math.max(maxY, block.getY());
+            maxZ = Math.max(maxZ, block.getZ());
+        }
+        
+        // The shell around the crater, reading types without creating Block objects
+        LongHashSet shell = new LongHashSet();
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+        for (Block block : destroyed) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        int x = block.getX() + dx;
+                        int y = block.getY() + dy;
+                        int z = block.getZ() + dz;
+                        long key = BlockKey.pack(x, y, z);
+                        if (y < minHeight || y >= maxHeight || crater.contains(key) || !shell.add(key)) {
+                            continue;
+                        }
+                        
+                        // Blocks next to a direct change are checked ahead of queued chain reactions
+                        if (plugin.getConfigManager().isPhysicsBlock(world.getType(x, y, z))) {
+                            plugin.getPhysicsManager().addPendingPhysicsCheck(world, key, true);
+                        }
+                    }
+                }
+            }
+        }
+        
+        plugin.getStructureManager().invalidateCache(world, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+    
     private boolean isVanillaPhysicsBlock(Material material) {
         // Let vanilla Minecraft handle these blocks
         return material == Material.SAND ||
@@ -1,13 +1,14 @@
 package avx.physics.listeners;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.data.BlockKey;
+import avx.physics.utils.BlockOffsets;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.FallingBlock;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityChangeBlockEvent;
-import org.bukkit.event.entity.EntitySpawnEvent;
 
 public class EntityListener implements Listener {
     
@@ -17,18 +18,6 @@ public class EntityListener implements Listener {
         this.plugin = plugin;
     }
     
-    @EventHandler(priority = EventPriority.MONITOR)
-    public void onFallingBlockSpawn(EntitySpawnEvent event) {
-        if (event.getEntityType() != EntityType.FALLING_BLOCK) {
-            return;
-        }
-        
-        FallingBlock fallingBlock = (FallingBlock) event.getEntity();
-        
-        // Apply custom gravity to our physics-controlled falling blocks
-        plugin.getGravityManager().applyGravity(fallingBlock);
-    }
-    
     @EventHandler(priority = EventPriority.HIGH)
     public void onFallingBlockLand(EntityChangeBlockEvent event) {
         if (event.getEntityType() != EntityType.FALLING_BLOCK) {
@@ -37,39 +26,31 @@ public class EntityListener implements Listener {
         
         FallingBlock fallingBlock = (FallingBlock) event.getEntity();
         
-        // Check if momentum/bouncing is enabled
-        if (plugin.getConfigManager().isMomentumEnabled()) {
+        // The landed block becomes part of whatever structure it touches
+        plugin.getStructureManager().invalidateCache(event.getBlock());
+        
+        // Only the plugin's own falling blocks bounce
+        if (plugin.getConfigManager().isMomentumEnabled() && plugin.getPhysicsManager().isPluginEntity(fallingBlock)) {
             plugin.getPhysicsManager().handleBlockLanding(fallingBlock, event.getBlock().getLocation());
         }
         
         // Check surrounding blocks for chain reactions
         if (plugin.getConfigManager().isChainReactionsEnabled()) {
-            // Small delay to let the block settle first
-            plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                checkSurroundingForPhysics(event.getBlock().getLocation());
-            }, 2L);
+            // Small delay to let the block settle first, then spread by distance
+            plugin.getPhysicsManager().scheduleChecksAround(
+                event.getBlock().getWorld(), BlockKey.of(event.getBlock()), BlockOffsets.cube(2), 2, 1.0);
         }
     }
     
-    private void checkSurroundingForPhysics(org.bukkit.Location location) {
-        // Check blocks that might be affected by the impact
-        for (int x = -2; x <= 2; x++) {
-            for (int y = -2; y <= 2; y++) {
-                for (int z = -2; z <= 2; z++) {
-                    if (x == 0 && y == 0 && z == 0) continue;
-                    
-                    org.bukkit.Location checkLoc = location.clone().add(x, y, z);
-                    org.bukkit.block.Block block = checkLoc.getBlock();
-                    
-                    if (plugin.getConfigManager().getPhysicsBlocks().contains(block.getType())) {
-                        // Add delay based on distance for realistic chain reaction
-                        int delay = (int) Math.sqrt(x*x + y*y + z*z);
-                        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                            plugin.getPhysicsManager().addPendingPhysicsCheck(checkLoc);
-                        }, delay);
-                    }
-                }
-            }
+    /**
+     * Forget a falling block once it lands, after every other handler has
+     * seen it as one of the plugin's. Landing ends the entity whether or
+     * not the event is cancelled.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onFallingBlockLanded(EntityChangeBlockEvent event) {
+        if (event.getEntityType() == EntityType.FALLING_BLOCK) {
+            plugin.getPhysicsManager().removeFallingEntity(event.getEntity());
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
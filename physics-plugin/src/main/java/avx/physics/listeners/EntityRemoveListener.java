@@ -0,0 +1,28 @@
+package avx.physics.listeners;
+
+import avx.physics.PhysicsPlugin;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Forgets the plugin's falling blocks as soon as they leave the world, for
+ * whatever reason. Paper only; elsewhere the periodic sweep catches them.
+ */
+public class EntityRemoveListener implements Listener {
+    
+    private final PhysicsPlugin plugin;
+    
+    public EntityRemoveListener(PhysicsPlugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntityType() == EntityType.FALLING_BLOCK) {
+            plugin.getPhysicsManager().removeFallingEntity(event.getEntity());
+        }
+    }
+}
\ No newline at end of file
@@ -38,7 +38,7 @@ public class PlayerInteractionListener implements Listener {
         if (plugin.getConfigManager().isDebugEnabled() && 
             player.hasPermission("physics.notify")) {
             
-            if (plugin.getConfigManager().getPhysicsBlocks().contains(event.getBlock().getType())) {
+            if (plugin.getConfigManager().isPhysicsBlock(event.getBlock().getType())) {
                 player.sendMessage("§7[Physics] §aBlock has realistic physics enabled!");
             }
         }
@@ -0,0 +1,24 @@
+package avx.physics.listeners;
+
+import avx.physics.PhysicsPlugin;
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Feeds measured tick durations to the performance manager. Paper only.
+ */
+public class ServerTickListener implements Listener {
+    
+    private final PhysicsPlugin plugin;
+    
+    public ServerTickListener(PhysicsPlugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        plugin.getPerformanceManager().recordTickDuration(event.getTickDuration());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,335 @@
+package avx.physics.managers;
+
+import avx.physics.PhysicsPlugin;
+import avx.physics.data.BlockKey;
+import avx.physics.utils.ConfigSnapshot;
+import avx.physics.utils.LongObjectHashMap;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Collects the particles and sounds of falling and landing blocks during a
+ * tick and plays them once per chunk on the next one.
+ *
+ * Blocks falling (or landing) in the same chunk share a single burst spread
+ * over the area they cover, with more particles and a louder sound the more
+ * blocks it stands for. Falling blocks of different materials get a burst
+ * each, so the crack particles match the blocks. At most
+ * effects.max-bursts-per-tick bursts are played per tick, the busiest chunks
+ * first, and chunks no player is close enough to see are skipped. Only
+ * touched from the main server thread.
+ */
+public class EffectsManager {
+    
+    private static final int FALLING_PARTICLES = 10;
+    private static final int IMPACT_PARTICLES = 5;
+    
+    /** Bursts stop growing past this many blocks */
+    private static final int MAX_SCALED_COUNT = 64;
+    
+    private final PhysicsPlugin plugin;
+    private final Map<UUID, WorldEffects> worlds = new HashMap<>();
+    private final List<Burst> visible = new ArrayList<>();
+    private final Location scratchLocation = new Location(null, 0, 0, 0);
+    
+    private long effectsRequested = 0;
+    private long burstsPlayed = 0;
+    private long effectsSkipped = 0;
+    
+    public EffectsManager(PhysicsPlugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Add the crack particles and break sound of a block starting to fall
+     */
+    public void addFalling(World world, long key, Material material) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isFallingParticlesEnabled() && !config.isSoundsEnabled()) {
+            return;
+        }
+        add(getWorldEffects(world), key, material, false);
+    }
+    
+    /**
+     * Add the dust cloud and hit sound of a block bouncing off the ground
+     */
+    public void addImpact(World world, long key) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isImpactParticlesEnabled() && !config.isSoundsEnabled()) {
+            return;
+        }
+        add(getWorldEffects(world), key, null, true);
+    }
+    
+    private void add(WorldEffects effects, long key, Material material, boolean impact) {
+        effectsRequested++;
+        LongObjectHashMap<Burst> bursts = impact ? effects.impacts : effects.falling;
+        long chunkKey = BlockKey.chunkKey(key);
+        Burst first = bursts.get(chunkKey);
+        Burst burst = first;
+        while (burst != null && burst.material != material) {
+            burst = burst.next;
+        }
+        if (burst == null) {
+            burst = new Burst(effects.world, material, impact, key);
+            burst.next = first;
+            bursts.put(chunkKey, burst);
+        }
+        burst.add(key);
+    }
+    
+    private WorldEffects getWorldEffects(World world) {
+        WorldEffects effects = worlds.get(world.getUID());
+        if (effects == null) {
+            effects = new WorldEffects(world);
+            worlds.put(world.getUID(), effects);
+        }
+        return effects;
+    }
+    
+    /**
+     * Play the bursts collected since the last call, within the per-tick
+     * budget. Runs once per tick.
+     */
+    public void flush() {
+        if (worlds.isEmpty()) {
+            return;
+        }
+        
+        for (Iterator<WorldEffects> iterator = worlds.values().iterator(); iterator.hasNext(); ) {
+            WorldEffects effects = iterator.next();
+            if (effects.isEmpty()) {
+                // Idle for a whole tick, so stop holding on to the world
+                iterator.remove();
+                continue;
+            }
+            World world = effects.world;
+            List<Player> players = world.getPlayers();
+            if (players.isEmpty()) {
+                effects.forEach(burst -> effectsSkipped += burst.count);
+                effects.clear();
+                continue;
+            }
+            
+            // Chunk coordinates of every player, to test each burst against
+            int[] playerChunks = new int[players.size() * 2];
+            for (int i = 0; i < players.size(); i++) {
+                Location location = players.get(i).getLocation(scratchLocation);
+                playerChunks[i * 2] = location.getBlockX() >> 4;
+                playerChunks[i * 2 + 1] = location.getBlockZ() >> 4;
+            }
+            int viewDistance = world.getViewDistance();
+            
+            effects.forEach(burst -> {
+                if (isSeen(burst, playerChunks, viewDistance)) {
+                    visible.add(burst);
+                } else {
+                    effectsSkipped += burst.count;
+                }
+            });
+            effects.clear();
+        }
+        
+        // The busiest chunks first, keeping the bursts of a chunk together and the
+        // order deterministic
+        visible.sort((a, b) -> {
+            if (a.chunkCount != b.chunkCount) {
+                return Integer.compare(b.chunkCount, a.chunkCount);
+            }
+            if (a.chunkKey != b.chunkKey) {
+                return Long.compare(a.chunkKey, b.chunkKey);
+            }
+            return a.count != b.count ? Integer.compare(b.count, a.count) : Long.compare(a.firstKey, b.firstKey);
+        });
+        
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        double effectScale = plugin.getPerformanceManager().getEffectScale();
+        int budget = config.getMaxEffectBurstsPerTick();
+        for (int i = 0; i < visible.size(); i++) {
+            Burst burst = visible.get(i);
+            if (i < budget && effectScale > 0) {
+                play(burst, config, effectScale);
+                burstsPlayed++;
+            } else {
+                effectsSkipped += burst.count;
+            }
+        }
+        visible.clear();
+    }
+    
+    private static boolean isSeen(Burst burst, int[] playerChunks, int viewDistance) {
+        int chunkX = burst.minX >> 4;
+        int chunkZ = burst.minZ >> 4;
+        for (int i = 0; i < playerChunks.length; i += 2) {
+            if (Math.abs(playerChunks[i] - chunkX) <= viewDistance
+                    && Math.abs(playerChunks[i + 1] - chunkZ) <= viewDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void play(Burst burst, ConfigSnapshot config, double effectScale) {
+        // Grows with the square root of the block count, so a collapse reads
+        // as bigger without drowning the client in particles
+        double intensity = Math.sqrt(Math.min(burst.count, MAX_SCALED_COUNT));
+        World world = burst.world;
+        double centerX = (burst.minX + burst.maxX + 1) / 2.0;
+        double centerZ = (burst.minZ + burst.maxZ + 1) / 2.0;
+        double spreadX = (burst.maxX - burst.minX) / 2.0;
+        double spreadY = (burst.maxY - burst.minY) / 2.0;
+        double spreadZ = (burst.maxZ - burst.minZ) / 2.0;
+        
+        if (burst.impact) {
+            int particles = (int) Math.round(IMPACT_PARTICLES * effectScale * intensity);
+            Location location = new Location(world, centerX, burst.minY + 0.1 + spreadY, centerZ);
+            if (config.isImpactParticlesEnabled() && particles > 0) {
+                world.spawnParticle(Particle.CLOUD, location, particles,
+                    0.2 + spreadX, 0.1 + spreadY, 0.2 + spreadZ, 0.05);
+            }
+            if (config.isSoundsEnabled() && Math.random() < effectScale) {
+                world.playSound(location, Sound.BLOCK_STONE_HIT,
+                    getVolume(config, intensity) * 0.7f, 1.2f + (float)(Math.random() * 0.3));
+            }
+            return;
+        }
+        
+        int particles = (int) Math.round(FALLING_PARTICLES * effectScale * intensity);
+        Location location = new Location(world, centerX, burst.minY + 0.5 + spreadY, centerZ);
+        if (config.isFallingParticlesEnabled() && particles > 0) {
+            world.spawnParticle(Particle.BLOCK_CRACK, location, particles,
+                0.3 + spreadX, 0.3 + spreadY, 0.3 + spreadZ, 0.1, burst.material.createBlockData());
+        }
+        if (config.isSoundsEnabled() && Math.random() < effectScale) {
+            world.playSound(location, Sound.BLOCK_STONE_BREAK,
+                getVolume(config, intensity), 0.8f + (float)(Math.random() * 0.4)); // Random pitch variation
+        }
+    }
+    
+    /**
+     * Louder for larger bursts, up to twice the configured volume
+     */
+    private static float getVolume(ConfigSnapshot config, double intensity) {
+        return config.getSoundVolume() * (float) Math.min(2.0, intensity);
+    }
+    
+    /**
+     * Forget every collected effect without playing it
+     */
+    public void clear() {
+        worlds.clear();
+        visible.clear();
+    }
+    
+    public long getEffectsRequested() {
+        return effectsRequested;
+    }
+    
+    public long getBurstsPlayed() {
+        return burstsPlayed;
+    }
+    
+    /**
+     * Effects nobody was close enough to see, or over the per-tick budget
+     */
+    public long getEffectsSkipped() {
+        return effectsSkipped;
+    }
+    
+    private static final class WorldEffects {
+        
+        final World world;
+        final LongObjectHashMap<Burst> falling = new LongObjectHashMap<>();
+        final LongObjectHashMap<Burst> impacts = new LongObjectHashMap<>();
+        
+        WorldEffects(World world) {
+            this.world = world;
+        }
+        
+        boolean isEmpty() {
+            return falling.isEmpty() && impacts.isEmpty();
+        }
+        
+        void forEach(Consumer<Burst> action) {
+            falling.forEach((key, first) -> {
+                int chunkCount = 0;
+                for (Burst burst = first; burst != null; burst = burst.next) {
+                    chunkCount += burst.count;
+                }
+                for (Burst burst = first; burst != null; burst = burst.next) {
+                    burst.chunkCount = chunkCount;
+                    action.accept(burst);
+                }
+            });
+            impacts.forEach((key, burst) -> {
+                burst.chunkCount = burst.count;
+                action.accept(burst);
+            });
+        }
+        
+        void clear() {
+            falling.clear();
+            impacts.clear();
+        }
+    }
+    
+    /**
+     * Effects of one kind and material in one chunk during one tick, with the
+     * bounds of the blocks they came from
+     */
+    private static final class Burst {
+        
+        final World world;
+        final Material material;
+        final boolean impact;
+        final long firstKey;
+        final long chunkKey;
+        
+        /** Next burst of the same chunk with another material */
+        Burst next;
+        int count;
+        
+        /** Blocks of every burst of this kind in the chunk, so busy chunks are played first */
+        int chunkCount;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        
+        Burst(World world, Material material, boolean impact, long firstKey) {
+            this.world = world;
+            this.material = material;
+            this.impact = impact;
+            this.firstKey = firstKey;
+            this.chunkKey = BlockKey.chunkKey(firstKey);
+        }
+        
+        void add(long key) {
+            int x = BlockKey.getX(key);
+            int y = BlockKey.getY(key);
+            int z = BlockKey.getZ(key);
+            count++;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+    }
+}
\ No newline at end of file
@@ -1,17 +1,39 @@
 package avx.physics.managers;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.data.BlockKey;
+import avx.physics.data.GravityZone;
+import avx.physics.data.GravityZoneGrid;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.FallingBlock;
 import org.bukkit.util.Vector;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Custom gravity zones and the gravity they give falling blocks.
+ *
+ * Zones are indexed per world in a {@link GravityZoneGrid}, so looking up
+ * the gravity at a point costs the same however many zones exist elsewhere.
+ * The falling blocks of the plugin get the gravity of wherever they are on
+ * every tick; other falling blocks are left to vanilla.
+ */
 public class GravityManager {
     
+    /** Downward acceleration of a vanilla falling block, in blocks per tick squared */
+    private static final double VANILLA_GRAVITY = 0.04;
+    
     private final PhysicsPlugin plugin;
-    private final Map<Location, Double> gravityZones;
+    private final Map<UUID, GravityZoneGrid> gravityZones;
+    private long zoneSequence = 0;
+    
+    // Reused for entity positions, only touched from the main thread
+    private final Location scratchLocation = new Location(null, 0, 0, 0);
     
     public GravityManager(PhysicsPlugin plugin) {
         this.plugin = plugin;
@@ -19,62 +41,84 @@ public class GravityManager {
     }
     
     /**
-     * Set gravity strength for a specific location
+     * Set gravity strength within a radius of a location, replacing any zone
+     * centered on the same block
      */
     public void setGravityZone(Location center, double radius, double strength) {
-        // Store the gravity zone
-        Location key = center.clone();
-        key.set(key.getBlockX(), key.getBlockY(), key.getBlockZ()); // Normalize to block coordinates
-        gravityZones.put(key, strength);
+        setGravityZone(center, radius, strength, 0);
+    }
+    
+    /**
+     * Set gravity strength within a radius of a location. Where zones overlap,
+     * the highest priority wins, then the newest zone.
+     */
+    public void setGravityZone(Location center, double radius, double strength, int priority) {
+        if (!(radius > 0)) {
+            throw new IllegalArgumentException("radius must be positive: " + radius);
+        }
         
-        plugin.getLogger().info("Created gravity zone at " + center + " with strength " + strength);
+        GravityZone zone = new GravityZone(center.getBlockX(), center.getBlockY(), center.getBlockZ(),
+            radius, strength, priority, zoneSequence++);
+        gravityZones.computeIfAbsent(center.getWorld().getUID(), id -> new GravityZoneGrid()).add(zone);
+        
+        plugin.getLogger().info("Created gravity zone at " + center + " with strength " + strength + " and radius " + radius);
+    }
+    
+    /**
+     * Get the zone that applies at a location, or null if it is in none
+     */
+    public GravityZone getGravityZone(Location location) {
+        World world = location.getWorld();
+        GravityZoneGrid zones = world == null ? null : gravityZones.get(world.getUID());
+        return zones == null ? null : zones.find(location.getX(), location.getY(), location.getZ());
     }
     
     /**
      * Get gravity strength at a specific location
      */
     public double getGravityStrength(Location location) {
-        // Check for gravity zones first
-        for (Map.Entry<Location, Double> zone : gravityZones.entrySet()) {
-            Location zoneCenter = zone.getKey();
-            if (location.getWorld().equals(zoneCenter.getWorld()) && 
-                location.distance(zoneCenter) <= 10) { // Default radius of 10 blocks
-                return zone.getValue();
-            }
-        }
-        
-        // Return default gravity strength
-        return plugin.getConfigManager().getDefaultGravityStrength();
+        GravityZone zone = getGravityZone(location);
+        return zone != null ? zone.getStrength() : plugin.getConfigManager().getDefaultGravityStrength();
     }
     
     /**
-     * Apply custom gravity to a falling block
+     * Apply one tick of custom gravity to a falling block. The entity still
+     * gets vanilla gravity and drag; only the difference to the gravity
+     * strength at its location is added, so at normal strength it is left alone.
      */
     public void applyGravity(FallingBlock fallingBlock) {
-        Location location = fallingBlock.getLocation();
-        double gravityStrength = getGravityStrength(location);
+        double gravityStrength = getGravityStrength(fallingBlock.getLocation(scratchLocation));
+        if (gravityStrength == 1.0) {
+            return;
+        }
         
         Vector velocity = fallingBlock.getVelocity();
-        
-        // Apply gravity strength modifier
-        velocity.setY(velocity.getY() * gravityStrength);
-        
-        // Apply air resistance if enabled
+        velocity.setY(velocity.getY() - VANILLA_GRAVITY * (gravityStrength - 1.0));
+        fallingBlock.setVelocity(velocity);
+    }
+    
+    /**
+     * Apply air resistance to a falling block once, as it spawns.
+     * From then on vanilla drag slows it down.
+     */
+    public void applyAirResistance(FallingBlock fallingBlock) {
         double airResistance = plugin.getConfigManager().getAirResistance();
         if (airResistance > 0) {
-            velocity.multiply(1.0 - airResistance);
+            fallingBlock.setVelocity(fallingBlock.getVelocity().multiply(1.0 - airResistance));
         }
-        
-        fallingBlock.setVelocity(velocity);
     }
     
     /**
-     * Remove gravity zone at location
+     * Remove the gravity zone centered on the block of a location
      */
     public void removeGravityZone(Location location) {
-        Location key = location.clone();
-        key.set(key.getBlockX(), key.getBlockY(), key.getBlockZ());
-        gravityZones.remove(key);
+        GravityZoneGrid zones = gravityZones.get(location.getWorld().getUID());
+        if (zones != null) {
+            zones.remove(BlockKey.of(location));
+            if (zones.isEmpty()) {
+                gravityZones.remove(location.getWorld().getUID());
+            }
+        }
     }
     
     /**
@@ -85,16 +129,20 @@ public class GravityManager {
     }
     
     /**
-     * Get all gravity zones
+     * Get all gravity zones, of every world
      */
-    public Map<Location, Double> getGravityZones() {
-        return new HashMap<>(gravityZones);
+    public List<GravityZone> getGravityZones() {
+        List<GravityZone> zones = new ArrayList<>();
+        for (GravityZoneGrid grid : gravityZones.values()) {
+            zones.addAll(grid.getZones());
+        }
+        return zones;
     }
     
     /**
      * Check if location is in a custom gravity zone
      */
     public boolean isInGravityZone(Location location) {
-        return getGravityStrength(location) != plugin.getConfigManager().getDefaultGravityStrength();
+        return getGravityZone(location) != null;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,76 +1,224 @@
 package avx.physics.managers;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.utils.TickSampler;
 import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
+/**
+ * Measures server tick performance and decides how much work physics may do.
+ *
+ * A load factor between 0 and 1 is updated every tick from measured MSPT
+ * (TPS when tick durations are not available) and scales the physics time
+ * budget, chain reaction radius and effects continuously.
+ */
 public class PerformanceManager {
     
+    private static final long TICK_NANOS = 50_000_000L;
+    
     private final PhysicsPlugin plugin;
-    private double lastTPS = 20.0;
-    private long lastTPSCheck = System.currentTimeMillis();
-    private int skipCounter = 0;
+    private final TickSampler tickSampler;
+    private final boolean paperServer;
+    private BukkitTask samplerTask;
+    
+    // Ticks sampled since start, the plugin's own clock for delayed work
+    private long currentTick = 0;
+    
+    // Load shedding level, rises quickly under load and recovers slowly
+    private static final double LOAD_ATTACK = 0.05;
+    private static final double LOAD_RELEASE = 0.01;
+    private double loadFactor = 0.0;
+    
+    // Physics loop time budget, utilisation is smoothed over recent runs
+    private long lastBudgetNanos = 0;
+    private double budgetUtilisation = 0.0;
     
     public PerformanceManager(PhysicsPlugin plugin) {
         this.plugin = plugin;
+        this.tickSampler = new TickSampler();
+        this.paperServer = detectPaper();
     }
     
     /**
-     * Check if physics can be processed based on server performance
+     * Start sampling tick timestamps and counting ticks
      */
-    public boolean canProcessPhysics() {
-        updateTPS();
+    public void start() {
+        stop();
+        samplerTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sampleTick, 1L, 1L);
+    }
+    
+    public void stop() {
+        if (samplerTask != null && !samplerTask.isCancelled()) {
+            samplerTask.cancel();
+        }
+    }
+    
+    private void sampleTick() {
+        currentTick++;
+        tickSampler.recordTick(plugin.nanoTime());
+        updateLoadFactor();
         
-        double minTPS = plugin.getConfigManager().getMinTPS();
+        // Log every 5 seconds
+        if (plugin.getConfigManager().isDebugEnabled() && currentTick % TickSampler.WINDOW_5S == 0) {
+            plugin.getLogger().info(String.format("Current TPS: %.2f, MSPT p95: %.2f",
+                getCurrentTPS(), tickSampler.getMsptPercentile(95)));
+        }
+    }
+    
+    /**
+     * Number of ticks sampled since the plugin started. Counted by the
+     * plugin itself, as the server's tick counter is only available on Paper.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+    
+    /**
+     * Record the busy time of a tick as measured by the server
+     */
+    public void recordTickDuration(double milliseconds) {
+        tickSampler.recordTickDuration((long) (milliseconds * 1_000_000L));
+    }
+    
+    /**
+     * Check if the Paper API (tick events, TPS and tick time getters) is available
+     */
+    public boolean isPaperServer() {
+        return paperServer;
+    }
+    
+    private static boolean detectPaper() {
+        try {
+            Class.forName("com.destroystokyo.paper.event.server.ServerTickEndEvent");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Move the load factor towards the currently measured load, limited per tick
+     * so it does not flap on single slow ticks
+     */
+    private void updateLoadFactor() {
+        double target = getMeasuredLoad();
+        double step = target > loadFactor ? LOAD_ATTACK : LOAD_RELEASE;
+        loadFactor += Math.max(-step, Math.min(step, target - loadFactor));
+    }
+    
+    /**
+     * Load between 0 and 1: 0 at or below target-mspt, 1 at the tick time
+     * matching min-tps
+     */
+    private double getMeasuredLoad() {
+        double minTPS = Math.max(1.0, plugin.getConfigManager().getMinTPS());
         
-        if (lastTPS < minTPS) {
-            skipCounter++;
-            // Skip every other tick when TPS is low
-            return skipCounter % 2 == 0;
+        if (!paperServer) {
+            // Tick gaps hide how busy a tick was, so go by TPS alone
+            return clamp((20.0 - getCurrentTPS()) / Math.max(0.1, 20.0 - minTPS));
         }
         
-        // Reset skip counter when TPS is good
-        skipCounter = 0;
-        return true;
+        double targetMspt = plugin.getConfigManager().getTargetMspt();
+        double limitMspt = Math.max(targetMspt + 1.0, 1000.0 / minTPS);
+        return clamp((getAverageTickTime() - targetMspt) / (limitMspt - targetMspt));
+    }
+    
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
     }
     
     /**
-     * Update the current TPS reading
+     * Check if physics can be processed based on server performance.
+     * Physics keeps running under load, with a budget shrunk by the load factor.
      */
-    private void updateTPS() {
-        long currentTime = System.currentTimeMillis();
+    public boolean canProcessPhysics() {
+        return getTickBudgetNanos() > 0;
+    }
+    
+    /**
+     * Get the time the physics loop may spend in this tick. Half of the headroom
+     * left by the recent average tick time is used, scaled down by the load
+     * factor, within the configured bounds. Without Paper only tick gaps are
+     * known, which are 50 ms on any healthy server, so the most allowed is
+     * scaled by the load factor alone.
+     */
+    public long getTickBudgetNanos() {
+        long minBudget = (long) (plugin.getConfigManager().getMinTickBudgetMs() * 1_000_000L);
+        long maxBudget = (long) (plugin.getConfigManager().getMaxTickBudgetMs() * 1_000_000L);
+        long available = maxBudget;
+        if (paperServer) {
+            long headroom = TICK_NANOS - (long) (getAverageTickTime() * 1_000_000L);
+            available = Math.min(maxBudget, headroom / 2);
+        }
+        long budget = (long) (available * (1.0 - loadFactor));
         
-        // Only update TPS every 5 seconds to avoid constant calculation
-        if (currentTime - lastTPSCheck > 5000) {
-            try {
-                // Get server TPS using reflection (Paper/Spigot specific)
-                Object server = Bukkit.getServer();
-                if (server.getClass().getSimpleName().equals("CraftServer")) {
-                    Object minecraftServer = server.getClass().getMethod("getServer").invoke(server);
-                    double[] recentTps = (double[]) minecraftServer.getClass().getField("recentTps").get(minecraftServer);
-                    lastTPS = recentTps[0]; // 1-minute average
-                } else {
-                    // Fallback for non-Spigot servers
-                    lastTPS = 20.0;
-                }
-            } catch (Exception e) {
-                // Fallback TPS calculation
-                lastTPS = Math.min(20.0, 20.0); // Assume normal TPS if can't get real value
-            }
-            
-            lastTPSCheck = currentTime;
-            
-            if (plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("Current TPS: " + String.format("%.2f", lastTPS));
-            }
+        lastBudgetNanos = Math.max(minBudget, budget);
+        return lastBudgetNanos;
+    }
+    
+    /**
+     * Scale the chain reaction radius by the load factor, keeping at least the direct neighbours
+     */
+    public int getChainReactionRadius(int maxRadius) {
+        return Math.max(1, (int) Math.round(maxRadius * (1.0 - loadFactor)));
+    }
+    
+    /**
+     * Fraction of particles and sounds to emit, from 1 (all) down to 0 at full load
+     */
+    public double getEffectScale() {
+        return 1.0 - loadFactor;
+    }
+    
+    /**
+     * Record the time a physics run took against the budget it was given
+     */
+    public void recordPhysicsTime(long usedNanos, long budgetNanos) {
+        if (budgetNanos <= 0) {
+            return;
         }
+        double utilisation = (double) usedNanos / budgetNanos;
+        budgetUtilisation += (utilisation - budgetUtilisation) * 0.1;
     }
     
     /**
-     * Get the current TPS
+     * Smoothed fraction of the tick budget used by recent physics runs
+     */
+    public double getBudgetUtilisation() {
+        return budgetUtilisation;
+    }
+    
+    /**
+     * Get the recent average tick duration in milliseconds. Without Paper this
+     * is the time between tick starts, which includes the server's idle time.
+     */
+    public double getAverageTickTime() {
+        return paperServer ? Bukkit.getAverageTickTime() : tickSampler.getAverageMspt();
+    }
+    
+    /**
+     * Get the tick duration percentile in milliseconds over the last minute
+     */
+    public double getMsptPercentile(double percentile) {
+        return tickSampler.getMsptPercentile(percentile);
+    }
+    
+    /**
+     * Get the TPS over the last 5 seconds
      */
     public double getCurrentTPS() {
-        updateTPS();
-        return lastTPS;
+        // The sampler needs a few seconds of data after startup
+        if (tickSampler.getSampleCount() < TickSampler.WINDOW_5S) {
+            return paperServer ? Math.min(20.0, Bukkit.getTPS()[0]) : 20.0;
+        }
+        return tickSampler.getTPS(TickSampler.WINDOW_5S);
+    }
+    
+    /**
+     * Get the TPS over the last given number of ticks, see {@link TickSampler}
+     */
+    public double getTPS(int windowTicks) {
+        return tickSampler.getTPS(windowTicks);
     }
     
     /**
@@ -82,11 +230,13 @@ public class PerformanceManager {
         int cacheSize = plugin.getStructureManager().getCacheSize();
         
         return String.format(
-            "TPS: %.2f | Pending: %d | Falling: %d | Cache: %d",
+            "TPS: %.2f | Pending: %d | Falling: %d | Cache: %d | Budget: %.1f%% of %.1fms",
             getCurrentTPS(),
             pendingChecks,
             fallingBlocks,
-            cacheSize
+            cacheSize,
+            budgetUtilisation * 100,
+            lastBudgetNanos / 1_000_000.0
         );
     }
     
@@ -117,7 +267,6 @@ public class PerformanceManager {
      * Get load factor (0.0 = no load, 1.0 = maximum load)
      */
     public double getLoadFactor() {
-        double tps = getCurrentTPS();
-        return Math.max(0.0, Math.min(1.0, (20.0 - tps) / 20.0));
+        return loadFactor;
     }
 } 
\ No newline at end of file
@@ -1,176 +1,541 @@
 package avx.physics.managers;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.data.BlockKey;
+import avx.physics.data.FallingEntities;
 import avx.physics.data.PhysicsBlock;
+import avx.physics.utils.BlockOffsets;
+import avx.physics.utils.ConfigSnapshot;
+import avx.physics.utils.LongHashSet;
+import avx.physics.utils.LongObjectHashMap;
+import avx.physics.utils.LongTimingWheel;
+import avx.physics.utils.LongWorkQueue;
 import org.bukkit.*;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.FallingBlock;
 import org.bukkit.util.Vector;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Tracks pending physics checks and falling blocks.
+ *
+ * All state is keyed by packed block positions ({@link BlockKey}) and
+ * partitioned per world; it is only touched from the main server thread.
+ * With async processing enabled, only the support search runs on worker
+ * threads and its result is applied back here on the main thread.
+ */
 public class PhysicsManager {
     
+    /** Ticks to wait before moving a block down a column with entities still falling */
+    private static final int RELOCATION_RETRY_TICKS = 5;
+    
     private final PhysicsPlugin plugin;
-    private final Map<Location, PhysicsBlock> physicsBlocks;
-    private final Queue<Location> pendingPhysicsChecks;
-    private final Set<Location> fallingBlocks;
+    private final Map<UUID, LongObjectHashMap<PhysicsBlock>> physicsBlocks;
+    private final Map<UUID, LongWorkQueue> pendingPhysicsChecks;
+    private final Map<UUID, LongHashSet> fallingBlocks;
+    private final Map<UUID, FallingEntities> fallingEntities;
+    private final Map<UUID, LongTimingWheel> scheduledChecks;
+    private final Set<UUID> asyncWorlds;
+    
+    // Pending check counters since startup
+    private long checksEnqueued = 0;
+    private long checksCoalesced = 0;
+    private long checksDropped = 0;
+    private long checksProcessed = 0;
+    
+    // Collapsed blocks since startup, by how they came down
+    private long fallingEntitiesSpawned = 0;
+    private long blocksRelocated = 0;
+    private long blocksLost = 0;
     
     public PhysicsManager(PhysicsPlugin plugin) {
         this.plugin = plugin;
-        this.physicsBlocks = new ConcurrentHashMap<>();
-        this.pendingPhysicsChecks = new ConcurrentLinkedQueue<>();
-        this.fallingBlocks = ConcurrentHashMap.newKeySet();
+        this.physicsBlocks = new HashMap<>();
+        this.pendingPhysicsChecks = new HashMap<>();
+        this.fallingBlocks = new HashMap<>();
+        this.fallingEntities = new HashMap<>();
+        this.scheduledChecks = new HashMap<>();
+        this.asyncWorlds = new HashSet<>();
     }
     
+    /**
+     * Run one round of the physics loop within the current tick budget.
+     * Work left when the budget is spent stays queued for the next round.
+     */
     public void processPhysics() {
+        long startTime = plugin.nanoTime();
+        long budget = plugin.getPerformanceManager().getTickBudgetNanos();
+        long deadline = startTime + budget;
+        
+        advanceScheduledChecks();
+        
+        if (plugin.getConfigManager().isAsyncProcessingEnabled()) {
+            processPhysicsAsync(deadline);
+        } else {
+            processPhysicsSync(deadline);
+        }
+        
+        plugin.getPerformanceManager().recordPhysicsTime(plugin.nanoTime() - startTime, budget);
+    }
+    
+    private void processPhysicsSync(long deadline) {
         int maxBlocks = plugin.getConfigManager().getMaxBlocksPerTick();
-        int processed = 0;
+        int fallen = 0;
         
-        while (!pendingPhysicsChecks.isEmpty() && processed < maxBlocks) {
-            Location location = pendingPhysicsChecks.poll();
-            if (location != null && !fallingBlocks.contains(location)) {
-                processBlockPhysics(location);
-                processed++;
+        Iterator<Map.Entry<UUID, LongWorkQueue>> worlds = pendingPhysicsChecks.entrySet().iterator();
+        while (worlds.hasNext() && fallen < maxBlocks && plugin.nanoTime() < deadline) {
+            Map.Entry<UUID, LongWorkQueue> entry = worlds.next();
+            LongWorkQueue queue = entry.getValue();
+            World world = Bukkit.getWorld(entry.getKey());
+            
+            // Drop checks for worlds that have been unloaded
+            if (world == null) {
+                checksDropped += queue.size();
+                worlds.remove();
+                continue;
+            }
+            if (queue.isEmpty()) {
+                continue;
+            }
+            if (!plugin.getConfigManager().isWorldEnabled(world.getName())) {
+                checksDropped += queue.size();
+                queue.clear();
+                continue;
+            }
+            
+            while (!queue.isEmpty() && fallen < maxBlocks && plugin.nanoTime() < deadline) {
+                // Group a batch of checks by chunk so each region is solved once.
+                // The queue holds no duplicates and no falling blocks.
+                LongObjectHashMap<LongHashSet> regions = new LongObjectHashMap<>();
+                for (int checked = 0; checked < maxBlocks && !queue.isEmpty(); checked++) {
+                    long key = queue.poll();
+                    LongHashSet region = regions.get(BlockKey.chunkKey(key));
+                    if (region == null) {
+                        region = new LongHashSet();
+                        regions.put(BlockKey.chunkKey(key), region);
+                    }
+                    region.add(key);
+                }
+                
+                // Solve every region before moving any block, so each structure is traversed once
+                LongHashSet unsupported = new LongHashSet();
+                long[] regionKeys = regions.keys();
+                for (int i = 0; i < regionKeys.length; i++) {
+                    LongHashSet keys = regions.get(regionKeys[i]);
+                    if (i > 0 && plugin.nanoTime() >= deadline) {
+                        // Out of time, keep the unsolved regions at the front of the queue
+                        keys.forEach(key -> queue.offerPriority(key));
+                    } else {
+                        plugin.getStructureManager().findUnsupported(world, keys.toArray(), unsupported);
+                        checksProcessed += keys.size();
+                    }
+                }
+                
+                if (!unsupported.isEmpty()) {
+                    fallen += dropUnsupported(world, unsupported, maxBlocks - fallen, deadline, false);
+                }
             }
         }
     }
     
-    public void addPendingPhysicsCheck(Location location) {
-        if (!fallingBlocks.contains(location)) {
-            pendingPhysicsChecks.offer(location.clone());
+    /**
+     * Hand a batch of queued checks per world to the async structure analysis.
+     * Only one batch per world is in flight at a time; checks queued meanwhile
+     * wait for the next batch.
+     */
+    private void processPhysicsAsync(long deadline) {
+        int maxBlocks = plugin.getConfigManager().getMaxBlocksPerTick();
+        
+        Iterator<Map.Entry<UUID, LongWorkQueue>> worlds = pendingPhysicsChecks.entrySet().iterator();
+        while (worlds.hasNext() && plugin.nanoTime() < deadline) {
+            Map.Entry<UUID, LongWorkQueue> entry = worlds.next();
+            LongWorkQueue queue = entry.getValue();
+            World world = Bukkit.getWorld(entry.getKey());
+            
+            // Drop checks for worlds that have been unloaded
+            if (world == null) {
+                checksDropped += queue.size();
+                worlds.remove();
+                continue;
+            }
+            if (queue.isEmpty() || asyncWorlds.contains(entry.getKey())) {
+                continue;
+            }
+            if (!plugin.getConfigManager().isWorldEnabled(world.getName())) {
+                checksDropped += queue.size();
+                queue.clear();
+                continue;
+            }
+            
+            long[] batch = new long[Math.min(queue.size(), maxBlocks)];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = queue.poll();
+            }
+            
+            UUID worldId = entry.getKey();
+            asyncWorlds.add(worldId);
+            boolean started = false;
+            try {
+                plugin.getStructureManager().findUnsupportedAsync(world, batch, unsupported -> {
+                    asyncWorlds.remove(worldId);
+                    applyUnsupported(worldId, batch, unsupported);
+                });
+                started = true;
+                checksProcessed += batch.length;
+            } finally {
+                if (!started) {
+                    // Capturing the snapshot failed, so release the world and keep the batch
+                    asyncWorlds.remove(worldId);
+                    requeue(world, batch);
+                }
+            }
         }
     }
     
-    private void processBlockPhysics(Location location) {
-        Block block = location.getBlock();
-        
-        // Check if block still exists and has physics enabled
-        if (block.getType() == Material.AIR || 
-            !plugin.getConfigManager().getPhysicsBlocks().contains(block.getType())) {
+    /**
+     * Drop the blocks found unsupported by an async analysis, re-checking each
+     * one against the live world as it may have changed since the snapshot.
+     * A failed analysis queues its batch again.
+     */
+    private void applyUnsupported(UUID worldId, long[] batch, LongHashSet unsupported) {
+        World world = Bukkit.getWorld(worldId);
+        if (world == null) {
+            return;
+        }
+        if (unsupported == null) {
+            requeue(world, batch);
+            return;
+        }
+        if (unsupported.isEmpty()) {
             return;
         }
         
-        // Check if world has physics enabled
-        if (!plugin.getConfigManager().isWorldEnabled(block.getWorld().getName())) {
+        long startTime = plugin.nanoTime();
+        long budget = plugin.getPerformanceManager().getTickBudgetNanos();
+        dropUnsupported(world, unsupported, plugin.getConfigManager().getMaxBlocksPerTick(), startTime + budget, true);
+        plugin.getPerformanceManager().recordPhysicsTime(plugin.nanoTime() - startTime, budget);
+    }
+    
+    /**
+     * Put the checks of a batch that could not be analysed back at the front of the queue
+     */
+    private void requeue(World world, long[] batch) {
+        for (long key : batch) {
+            addPendingPhysicsCheck(world, key, true);
+        }
+    }
+    
+    /**
+     * Make unsupported blocks fall, up to the given block count and deadline.
+     * Blocks over budget are queued again and re-checked on a later tick.
+     *
+     * @param recheckSupport true to check each block's support against the
+     *                       live world first, for results found on a snapshot
+     * @return number of blocks that fell
+     */
+    private int dropUnsupported(World world, LongHashSet unsupported, int budget, long deadline, boolean recheckSupport) {
+        Set<Material> physicsMaterials = plugin.getConfigManager().getPhysicsBlocks();
+        int fallen = 0;
+        
+        for (long key : sortBottomUp(unsupported.toArray(), world.getMinHeight())) {
+            int x = BlockKey.getX(key);
+            int z = BlockKey.getZ(key);
+            if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                continue;
+            }
+            
+            Block block = world.getBlockAt(x, BlockKey.getY(key), z);
+            if (!physicsMaterials.contains(block.getType())) {
+                continue;
+            }
+            if (recheckSupport && plugin.getStructureManager().hasStructuralSupport(block)) {
+                // Support was placed after the snapshot was taken
+                continue;
+            }
+            
+            if (fallen < budget && (fallen == 0 || plugin.nanoTime() < deadline)) {
+                makeBlockFall(block);
+                fallen++;
+            } else {
+                // Finish a collapse that is under way before starting new checks
+                addPendingPhysicsCheck(world, key, true);
+            }
+        }
+        return fallen;
+    }
+    
+    /**
+     * Order block keys by height, lowest first, so blocks moved without an
+     * entity land on the ground rather than on blocks about to fall
+     */
+    private static long[] sortBottomUp(long[] keys, int minY) {
+        // Height above the world bottom in the high 32 bits, the index in the low 32,
+        // so the sign bit stays clear for any world height
+        long[] order = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = ((long) (BlockKey.getY(keys[i]) - minY) << 32) | i;
+        }
+        Arrays.sort(order);
+        
+        long[] sorted = new long[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = keys[(int) order[i]];
+        }
+        return sorted;
+    }
+    
+    public void addPendingPhysicsCheck(Location location) {
+        addPendingPhysicsCheck(location.getWorld(), BlockKey.of(location));
+    }
+    
+    public void addPendingPhysicsCheck(Block block) {
+        addPendingPhysicsCheck(block.getWorld(), BlockKey.of(block));
+    }
+    
+    public void addPendingPhysicsCheck(Block block, boolean priority) {
+        addPendingPhysicsCheck(block.getWorld(), BlockKey.of(block), priority);
+    }
+    
+    public void addPendingPhysicsCheck(World world, long key) {
+        addPendingPhysicsCheck(world, key, false);
+    }
+    
+    /**
+     * Queue a block for a support check. A block that is already queued is
+     * coalesced with the queued check; a priority request moves it ahead of
+     * normal checks.
+     */
+    public void addPendingPhysicsCheck(World world, long key, boolean priority) {
+        LongHashSet falling = fallingBlocks.get(world.getUID());
+        if (falling != null && falling.contains(key)) {
+            checksDropped++;
             return;
         }
         
-        // Check structural integrity
-        if (!plugin.getStructureManager().hasStructuralSupport(location)) {
-            makeBlockFall(location);
+        LongWorkQueue queue = pendingPhysicsChecks.computeIfAbsent(world.getUID(), id -> new LongWorkQueue());
+        boolean added = priority ? queue.offerPriority(key) : queue.offer(key);
+        if (added) {
+            checksEnqueued++;
+        } else {
+            checksCoalesced++;
         }
     }
     
     public void makeBlockFall(Location location) {
-        Block block = location.getBlock();
+        makeBlockFall(location.getBlock());
+    }
+    
+    public void makeBlockFall(Block block) {
         Material material = block.getType();
+        World world = block.getWorld();
+        long key = BlockKey.of(block);
+        LongHashSet falling = fallingBlocks.computeIfAbsent(world.getUID(), id -> new LongHashSet());
+        
+        if (material == Material.AIR || falling.contains(key)) {
+            return;
+        }
+        
+        LongWorkQueue queue = pendingPhysicsChecks.get(world.getUID());
+        if (queue != null && queue.remove(key)) {
+            checksDropped++;
+        }
         
-        if (material == Material.AIR || fallingBlocks.contains(location)) {
+        // Past the entity budget the block comes down without an entity, once
+        // the entities below it have landed so it does not take their place
+        FallingEntities entities = fallingEntities.computeIfAbsent(world.getUID(), id -> new FallingEntities());
+        if (!entities.hasRoom(key, plugin.getConfigManager().getMaxFallingEntities(),
+                plugin.getConfigManager().getMaxFallingEntitiesPerChunk())) {
+            if (entities.isColumnFalling(key)) {
+                getScheduledChecks(world).schedule(key, RELOCATION_RETRY_TICKS);
+            } else {
+                relocateBlock(world, block, material);
+            }
             return;
         }
         
         // Mark as falling to prevent duplicate processing
-        fallingBlocks.add(location.clone());
+        falling.add(key);
         
         // Create falling block entity
+        Location location = block.getLocation();
         Location spawnLoc = location.clone().add(0.5, 0, 0.5);
-        FallingBlock fallingBlock = spawnLoc.getWorld().spawnFallingBlock(spawnLoc, material.createBlockData());
-        
-        // Apply custom gravity and momentum
-        applyCustomPhysics(fallingBlock);
+        FallingBlock fallingBlock = world.spawnFallingBlock(spawnLoc, material.createBlockData());
+        plugin.getGravityManager().applyAirResistance(fallingBlock);
+        entities.add(fallingBlock, key);
+        fallingEntitiesSpawned++;
         
-        // Show effects
-        showFallingEffects(location);
+        // Particles and sound, merged with the rest of the chunk for this tick
+        plugin.getEffectsManager().addFalling(world, key, material);
         
         // Remove original block
         block.setType(Material.AIR);
+        plugin.getStructureManager().invalidateCache(block);
         
-        // Store physics data
+        // Store physics data until the entity lands or leaves the world
         PhysicsBlock physicsBlockData = new PhysicsBlock(location, material, System.currentTimeMillis());
-        physicsBlocks.put(location, physicsBlockData);
+        physicsBlocks.computeIfAbsent(world.getUID(), id -> new LongObjectHashMap<>()).put(key, physicsBlockData);
         
         // Check for chain reactions
         if (plugin.getConfigManager().isChainReactionsEnabled()) {
-            checkChainReactions(location);
+            checkChainReactions(world, key);
+        }
+    }
+    
+    /**
+     * Move a block straight down to where it would land, as its falling
+     * entity would have but in one go and without effects. It stops on top
+     * of fluids rather than replacing them, and a block with nothing below
+     * it down to the world bottom falls out of the world.
+     */
+    private void relocateBlock(World world, Block block, Material material) {
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        int minY = world.getMinHeight();
+        while (y > minY && world.getType(x, y - 1, z).isAir()) {
+            y--;
+        }
+        if (y == block.getY()) {
+            // Resting on something already, nothing to move
+            return;
+        }
+        
+        block.setType(Material.AIR);
+        plugin.getStructureManager().invalidateCache(block);
+        
+        // A block that found nothing to land on falls out of the world
+        Block target = world.getBlockAt(x, y, z);
+        boolean landed = y > minY;
+        if (landed) {
+            target.setType(material);
+            plugin.getStructureManager().invalidateCache(target);
+            blocksRelocated++;
+        } else {
+            blocksLost++;
         }
         
-        // Schedule removal from falling blocks set when block lands
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            fallingBlocks.remove(location);
-            physicsBlocks.remove(location);
-        }, 100L); // 5 seconds maximum fall time
+        // Same follow-up checks as a falling entity leaving and landing
+        if (plugin.getConfigManager().isChainReactionsEnabled()) {
+            checkChainReactions(world, BlockKey.of(block));
+            if (landed) {
+                scheduleChecksAround(world, BlockKey.of(target), BlockOffsets.cube(2), 2, 1.0);
+            }
+        }
+    }
+    
+    private void checkChainReactions(World world, long origin) {
+        // Delay based on distance to create a realistic chain reaction
+        int radius = plugin.getPerformanceManager().getChainReactionRadius(plugin.getConfigManager().getMaxChainDistance());
+        scheduleChecksAround(world, origin, BlockOffsets.sphere(radius), 0, 2.0);
     }
     
-    private void applyCustomPhysics(FallingBlock fallingBlock) {
-        double gravityStrength = plugin.getConfigManager().getDefaultGravityStrength();
-        double airResistance = plugin.getConfigManager().getAirResistance();
+    /**
+     * Schedule a check for every physics block at the given offsets from a
+     * position, delayed by distance so the effect spreads outwards
+     */
+    public void scheduleChecksAround(World world, long origin, BlockOffsets offsets, int baseDelay, double delayPerBlock) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        LongTimingWheel wheel = getScheduledChecks(world);
+        int originX = BlockKey.getX(origin);
+        int originY = BlockKey.getY(origin);
+        int originZ = BlockKey.getZ(origin);
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
         
-        // Apply custom gravity
-        Vector velocity = fallingBlock.getVelocity();
-        velocity.setY(velocity.getY() * gravityStrength);
-        
-        // Apply air resistance
-        velocity.multiply(1.0 - airResistance);
-        
-        fallingBlock.setVelocity(velocity);
-        
-        // Set bounce if momentum is enabled
-        if (plugin.getConfigManager().isMomentumEnabled()) {
-            // This will be handled in the EntityListener when the block hits the ground
-        }
-    }
-    
-    private void showFallingEffects(Location location) {
-        if (plugin.getConfigManager().isFallingParticlesEnabled()) {
-            location.getWorld().spawnParticle(
-                Particle.BLOCK_CRACK, 
-                location.clone().add(0.5, 0.5, 0.5),
-                10,
-                0.3, 0.3, 0.3,
-                0.1,
-                location.getBlock().getBlockData()
-            );
-        }
-        
-        if (plugin.getConfigManager().isSoundsEnabled()) {
-            location.getWorld().playSound(
-                location,
-                Sound.BLOCK_STONE_BREAK,
-                plugin.getConfigManager().getSoundVolume(),
-                0.8f + (float)(Math.random() * 0.4) // Random pitch variation
-            );
-        }
-    }
-    
-    private void checkChainReactions(Location origin) {
-        int maxDistance = plugin.getConfigManager().getMaxChainDistance();
-        World world = origin.getWorld();
-        
-        // Check surrounding blocks in a radius
-        for (int x = -maxDistance; x <= maxDistance; x++) {
-            for (int y = -maxDistance; y <= maxDistance; y++) {
-                for (int z = -maxDistance; z <= maxDistance; z++) {
-                    if (x == 0 && y == 0 && z == 0) continue;
-                    
-                    Location checkLocation = origin.clone().add(x, y, z);
-                    Block block = world.getBlockAt(checkLocation);
-                    
-                    // Only check blocks that have physics
-                    if (plugin.getConfigManager().getPhysicsBlocks().contains(block.getType())) {
-                        // Add to pending checks with a slight delay to create realistic chain reaction
-                        int delay = (int) (Math.sqrt(x*x + y*y + z*z) * 2); // Delay based on distance
-                        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                            addPendingPhysicsCheck(checkLocation);
-                        }, delay);
-                    }
-                }
+        // Check surrounding blocks in a radius, reading types without creating Block objects
+        for (int i = 0; i < offsets.size(); i++) {
+            int x = originX + offsets.getX(i);
+            int y = originY + offsets.getY(i);
+            int z = originZ + offsets.getZ(i);
+            if (y < minY || y >= maxY || !world.isChunkLoaded(x >> 4, z >> 4)) {
+                continue;
+            }
+            
+            // Only check blocks that have physics
+            if (config.isPhysicsBlock(world.getType(x, y, z))) {
+                int delay = baseDelay + (int) (offsets.getDistance(i) * delayPerBlock);
+                wheel.schedule(BlockKey.pack(x, y, z), delay);
+            }
+        }
+    }
+    
+    private LongTimingWheel getScheduledChecks(World world) {
+        return scheduledChecks.computeIfAbsent(world.getUID(), id -> new LongTimingWheel(plugin.getPerformanceManager().getCurrentTick()));
+    }
+    
+    /**
+     * Move every scheduled check that is due into the pending queues
+     */
+    private void advanceScheduledChecks() {
+        long currentTick = plugin.getPerformanceManager().getCurrentTick();
+        
+        Iterator<Map.Entry<UUID, LongTimingWheel>> wheels = scheduledChecks.entrySet().iterator();
+        while (wheels.hasNext()) {
+            Map.Entry<UUID, LongTimingWheel> entry = wheels.next();
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) {
+                checksDropped += entry.getValue().size();
+                wheels.remove();
+                continue;
             }
+            entry.getValue().advance(currentTick, key -> addPendingPhysicsCheck(world, key));
+        }
+    }
+    
+    /**
+     * Apply one tick of custom gravity to every falling block entity of the plugin
+     */
+    public void tickFallingEntities() {
+        GravityManager gravityManager = plugin.getGravityManager();
+        for (FallingEntities entities : fallingEntities.values()) {
+            entities.forEach(gravityManager::applyGravity);
         }
     }
     
+    /**
+     * Forget a falling block entity of the plugin that landed or left the
+     * world, so the block it fell from may be checked and fall again
+     */
+    public void removeFallingEntity(Entity entity) {
+        UUID worldId = entity.getWorld().getUID();
+        FallingEntities entities = fallingEntities.get(worldId);
+        if (entities != null) {
+            entities.remove(entity.getUniqueId(), origin -> forgetFallingBlock(worldId, origin));
+        }
+    }
+    
+    /**
+     * Forget the falling block entities of the plugin that are gone without
+     * an event saying so, such as ones that broke where they landed
+     */
+    public void sweepFallingEntities() {
+        for (Map.Entry<UUID, FallingEntities> entry : fallingEntities.entrySet()) {
+            UUID worldId = entry.getKey();
+            entry.getValue().prune(origin -> forgetFallingBlock(worldId, origin));
+        }
+    }
+    
+    private void forgetFallingBlock(UUID worldId, long origin) {
+        LongHashSet falling = fallingBlocks.get(worldId);
+        if (falling != null) {
+            falling.remove(origin);
+        }
+        LongObjectHashMap<PhysicsBlock> blocks = physicsBlocks.get(worldId);
+        if (blocks != null) {
+            blocks.remove(origin);
+        }
+    }
+    
+    /**
+     * Check if an entity is a falling block spawned by the plugin
+     */
+    public boolean isPluginEntity(Entity entity) {
+        FallingEntities entities = fallingEntities.get(entity.getWorld().getUID());
+        return entities != null && entities.contains(entity.getUniqueId());
+    }
+    
     public void handleBlockLanding(FallingBlock fallingBlock, Location landLocation) {
         if (!plugin.getConfigManager().isMomentumEnabled()) {
             return;
@@ -184,47 +549,96 @@ public class PhysicsManager {
             velocity.setY(-velocity.getY() * bounceFactor);
             fallingBlock.setVelocity(velocity);
             
-            // Show impact effects
-            showImpactEffects(landLocation);
-        }
-    }
-    
-    private void showImpactEffects(Location location) {
-        if (plugin.getConfigManager().isImpactParticlesEnabled()) {
-            location.getWorld().spawnParticle(
-                Particle.CLOUD,
-                location.clone().add(0.5, 0.1, 0.5),
-                5,
-                0.2, 0.1, 0.2,
-                0.05
-            );
-        }
-        
-        if (plugin.getConfigManager().isSoundsEnabled()) {
-            location.getWorld().playSound(
-                location,
-                Sound.BLOCK_STONE_HIT,
-                plugin.getConfigManager().getSoundVolume() * 0.7f,
-                1.2f + (float)(Math.random() * 0.3)
-            );
+            // Impact particles and sound, merged with the rest of the chunk for this tick
+            plugin.getEffectsManager().addImpact(landLocation.getWorld(), BlockKey.of(landLocation));
         }
     }
     
     public boolean isFalling(Location location) {
-        return fallingBlocks.contains(location);
+        LongHashSet falling = fallingBlocks.get(location.getWorld().getUID());
+        return falling != null && falling.contains(BlockKey.of(location));
     }
     
     public void clearAll() {
         physicsBlocks.clear();
         pendingPhysicsChecks.clear();
         fallingBlocks.clear();
+        fallingEntities.clear();
+        scheduledChecks.clear();
+        asyncWorlds.clear();
     }
     
     public int getPendingChecksCount() {
-        return pendingPhysicsChecks.size();
+        int count = 0;
+        for (LongWorkQueue queue : pendingPhysicsChecks.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+    
+    public int getScheduledChecksCount() {
+        int count = 0;
+        for (LongTimingWheel wheel : scheduledChecks.values()) {
+            count += wheel.size();
+        }
+        return count;
+    }
+    
+    public long getChecksEnqueued() {
+        return checksEnqueued;
+    }
+    
+    public long getChecksCoalesced() {
+        return checksCoalesced;
+    }
+    
+    public long getChecksDropped() {
+        return checksDropped;
+    }
+    
+    /**
+     * Number of queued checks whose support was actually searched
+     */
+    public long getChecksProcessed() {
+        return checksProcessed;
     }
     
     public int getFallingBlocksCount() {
-        return fallingBlocks.size();
+        int count = 0;
+        for (LongHashSet falling : fallingBlocks.values()) {
+            count += falling.size();
+        }
+        return count;
+    }
+    
+    /**
+     * Number of falling block entities of the plugin still in the air
+     */
+    public int getFallingEntitiesCount() {
+        int count = 0;
+        for (FallingEntities entities : fallingEntities.values()) {
+            count += entities.size();
+        }
+        return count;
+    }
+    
+    public long getFallingEntitiesSpawned() {
+        return fallingEntitiesSpawned;
+    }
+    
+    /**
+     * Number of blocks moved straight to where they land because the falling
+     * entity budget was used up
+     */
+    public long getBlocksRelocated() {
+        return blocksRelocated;
+    }
+    
+    /**
+     * Number of blocks moved without an entity that had nothing to land on
+     * and fell out of the world
+     */
+    public long getBlocksLost() {
+        return blocksLost;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
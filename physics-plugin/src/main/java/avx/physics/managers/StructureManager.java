@@ -1,217 +1,181 @@
 package avx.physics.managers;
 
 import avx.physics.PhysicsPlugin;
+import avx.physics.data.BlockKey;
+import avx.physics.structure.AreaAnalysis;
+import avx.physics.structure.BlockView;
+import avx.physics.structure.ConnectivityIndex;
+import avx.physics.structure.IntegrityVisitor;
+import avx.physics.structure.SectionCache;
+import avx.physics.structure.SnapshotBlockView;
+import avx.physics.structure.SupportComponent;
+import avx.physics.structure.WorldBlockView;
+import avx.physics.utils.LongHashSet;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.util.Vector;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Level;
 
+/**
+ * Answers structural support queries using one {@link ConnectivityIndex} per world.
+ *
+ * Block changes only mark the affected sections of the index dirty; support is
+ * recomputed lazily for the whole connected structure on the next query.
+ * All indexes share one {@link SectionCache}, so the memory budget holds
+ * across worlds.
+ *
+ * The manager and its indexes are thread-safe, but the live indexes read
+ * blocks straight from the world, so queries on them belong on the main
+ * thread. Work off the main thread goes through snapshots, see
+ * {@link #findUnsupportedAsync}.
+ */
 public class StructureManager {
     
     private final PhysicsPlugin plugin;
-    private final Map<Location, Set<Location>> supportCache;
-    private final long cacheExpiration = 30000; // 30 seconds
-    private final Map<Location, Long> cacheTimestamps;
+    private final Map<UUID, ConnectivityIndex> indexes;
+    private volatile SectionCache sectionCache;
     
     public StructureManager(PhysicsPlugin plugin) {
         this.plugin = plugin;
-        this.supportCache = new HashMap<>();
-        this.cacheTimestamps = new HashMap<>();
+        this.indexes = new ConcurrentHashMap<>();
     }
     
     /**
      * Check if a block has sufficient structural support
      */
     public boolean hasStructuralSupport(Location location) {
-        Block block = location.getBlock();
-        
+        return hasStructuralSupport(location.getBlock());
+    }
+    
+    /**
+     * Check if a block has sufficient structural support
+     */
+    public boolean hasStructuralSupport(Block block) {
         // Air blocks don't need support
         if (block.getType() == Material.AIR) {
             return true;
         }
         
         // Support blocks are always supported
-        if (plugin.getConfigManager().getSupportBlocks().contains(block.getType())) {
+        if (plugin.getConfigManager().isSupportBlock(block.getType())) {
             return true;
         }
         
-        // Check cache first
-        if (isCacheValid(location)) {
-            Set<Location> cachedSupports = supportCache.get(location);
-            return cachedSupports != null && !cachedSupports.isEmpty();
-        }
-        
-        // Calculate support
-        Set<Location> supportingBlocks = findSupportingBlocks(location);
-        
-        // Cache the result
-        supportCache.put(location.clone(), new HashSet<>(supportingBlocks));
-        cacheTimestamps.put(location.clone(), System.currentTimeMillis());
-        
-        // Check if we have minimum required support
-        int minSupport = plugin.getConfigManager().getMinSupportBlocks();
-        return supportingBlocks.size() >= minSupport;
+        return getIndex(block.getWorld()).isSupported(block.getX(), block.getY(), block.getZ());
     }
     
     /**
-     * Find all blocks that provide structural support to the given location
+     * Get the connected structure a block belongs to, or null if the block is
+     * not part of one
      */
-    private Set<Location> findSupportingBlocks(Location location) {
-        Set<Location> supportingBlocks = new HashSet<>();
-        Set<Location> visited = new HashSet<>();
-        Queue<Location> toCheck = new LinkedList<>();
-        
-        int maxDistance = plugin.getConfigManager().getMaxSupportDistance();
-        World world = location.getWorld();
-        
-        // Start with the block itself
-        toCheck.add(location.clone());
-        
-        while (!toCheck.isEmpty() && supportingBlocks.size() < 100) { // Limit to prevent infinite loops
-            Location current = toCheck.poll();
-            
-            if (visited.contains(current)) {
-                continue;
-            }
-            visited.add(current.clone());
-            
-            // Check if this location is too far
-            if (current.distance(location) > maxDistance) {
-                continue;
-            }
-            
-            Block currentBlock = world.getBlockAt(current);
-            
-            // If this is a support block, we found support
-            if (plugin.getConfigManager().getSupportBlocks().contains(currentBlock.getType())) {
-                supportingBlocks.add(current.clone());
-                continue;
-            }
-            
-            // If this block is connected to the ground through a continuous path
-            if (isConnectedToGround(current, visited, maxDistance)) {
-                supportingBlocks.add(current.clone());
-                continue;
-            }
-            
-            // Check adjacent blocks for potential support paths
-            for (Vector direction : getSupportDirections()) {
-                Location adjacent = current.clone().add(direction);
-                Block adjacentBlock = world.getBlockAt(adjacent);
-                
-                // Only follow solid, physics-enabled blocks or support blocks
-                if (adjacentBlock.getType() != Material.AIR && 
-                    (plugin.getConfigManager().getPhysicsBlocks().contains(adjacentBlock.getType()) ||
-                     plugin.getConfigManager().getSupportBlocks().contains(adjacentBlock.getType()))) {
-                    
-                    if (!visited.contains(adjacent)) {
-                        toCheck.add(adjacent);
-                    }
-                }
-            }
-        }
-        
-        return supportingBlocks;
+    public SupportComponent getComponent(Block block) {
+        return getIndex(block.getWorld()).getComponent(block.getX(), block.getY(), block.getZ());
     }
     
     /**
-     * Check if a block is connected to the ground (Y=0 or bedrock layer)
+     * Add every physics block of the unsupported structures containing the given
+     * blocks to a set, traversing each structure once
      */
-    private boolean isConnectedToGround(Location location, Set<Location> visited, int maxDistance) {
-        World world = location.getWorld();
-        Queue<Location> pathCheck = new LinkedList<>();
-        Set<Location> pathVisited = new HashSet<>(visited);
-        
-        pathCheck.add(location.clone());
+    public void findUnsupported(World world, long[] keys, LongHashSet unsupported) {
+        getIndex(world).findUnsupported(keys, unsupported);
+    }
+    
+    /**
+     * Find the unsupported structures containing the given blocks off the main thread.
+     *
+     * Chunks around the blocks are captured as snapshots first, so this must be
+     * called on the main thread. The callback also runs on the main thread and
+     * receives the keys of every physics block that must fall, or null if the
+     * analysis failed; the world may have changed in between, so callers should
+     * re-check each block before moving it.
+     */
+    public void findUnsupportedAsync(World world, long[] keys, Consumer<LongHashSet> callback) {
+        int searchRadius = plugin.getConfigManager().getMaxSupportDistance();
+        int minSupport = plugin.getConfigManager().getMinSupportBlocks();
+        SnapshotBlockView view = SnapshotBlockView.capture(world, keys, searchRadius,
+            plugin.getConfigManager().getPhysicsBlocks(), plugin.getConfigManager().getSupportBlocks());
         
-        while (!pathCheck.isEmpty()) {
-            Location current = pathCheck.poll();
-            
-            if (pathVisited.contains(current)) {
-                continue;
-            }
-            pathVisited.add(current.clone());
-            
-            // If we're too far from the original location, stop
-            if (current.distance(location) > maxDistance) {
-                continue;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            LongHashSet unsupported;
+            try {
+                unsupported = new ConnectivityIndex(view, searchRadius, minSupport).findUnsupported(keys);
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Async structure analysis failed", e);
+                unsupported = null;
             }
             
-            // If we reached bedrock level or a support block, we have ground connection
-            if (current.getBlockY() <= world.getMinHeight() + 5 || 
-                plugin.getConfigManager().getSupportBlocks().contains(world.getBlockAt(current).getType())) {
-                return true;
+            if (plugin.isEnabled()) {
+                LongHashSet result = unsupported;
+                Bukkit.getScheduler().runTask(plugin, () -> callback.accept(result));
             }
-            
-            // Check downward path
-            for (int y = current.getBlockY() - 1; y >= Math.max(world.getMinHeight(), current.getBlockY() - 3); y--) {
-                Location below = new Location(world, current.getBlockX(), y, current.getBlockZ());
-                Block belowBlock = world.getBlockAt(below);
-                
-                if (belowBlock.getType() != Material.AIR) {
-                    if (plugin.getConfigManager().getSupportBlocks().contains(belowBlock.getType())) {
-                        return true;
-                    }
-                    
-                    if (plugin.getConfigManager().getPhysicsBlocks().contains(belowBlock.getType()) && 
-                        !pathVisited.contains(below)) {
-                        pathCheck.add(below);
-                    }
+        });
+    }
+    
+    private ConnectivityIndex getIndex(World world) {
+        return indexes.computeIfAbsent(world.getUID(), id -> new ConnectivityIndex(
+            new WorldBlockView(world, plugin.getConfigManager().getPhysicsBlocks(), plugin.getConfigManager().getSupportBlocks()),
+            plugin.getConfigManager().getMaxSupportDistance(),
+            plugin.getConfigManager().getMinSupportBlocks(),
+            getSectionCache()
+        ));
+    }
+    
+    /**
+     * Get the cache shared by the world indexes, sized from the current configuration
+     */
+    public SectionCache getSectionCache() {
+        SectionCache cache = sectionCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = sectionCache;
+                if (cache == null) {
+                    cache = new SectionCache(plugin.getConfigManager().getCacheSizeMb() * 1024L * 1024L);
+                    sectionCache = cache;
                 }
             }
         }
-        
-        return false;
+        return cache;
     }
     
     /**
-     * Get directions to check for structural support
+     * Invalidate cached support around a location
      */
-    private List<Vector> getSupportDirections() {
-        return Arrays.asList(
-            new Vector(0, -1, 0),  // Down (most important)
-            new Vector(1, 0, 0),   // East
-            new Vector(-1, 0, 0),  // West
-            new Vector(0, 0, 1),   // South
-            new Vector(0, 0, -1),  // North
-            new Vector(1, -1, 0),  // Down-East
-            new Vector(-1, -1, 0), // Down-West
-            new Vector(0, -1, 1),  // Down-South
-            new Vector(0, -1, -1), // Down-North
-            new Vector(0, 1, 0)    // Up (least important)
-        );
+    public void invalidateCache(Location location) {
+        ConnectivityIndex index = indexes.get(location.getWorld().getUID());
+        if (index != null) {
+            index.markChanged(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        }
     }
     
     /**
-     * Check if cached data is still valid
+     * Invalidate cached support around a block
      */
-    private boolean isCacheValid(Location location) {
-        Long timestamp = cacheTimestamps.get(location);
-        if (timestamp == null) {
-            return false;
+    public void invalidateCache(Block block) {
+        ConnectivityIndex index = indexes.get(block.getWorld().getUID());
+        if (index != null) {
+            index.markChanged(block.getX(), block.getY(), block.getZ());
         }
-        
-        return System.currentTimeMillis() - timestamp < cacheExpiration;
     }
     
     /**
-     * Invalidate cache for a location and surrounding area
+     * Invalidate cached support around every block in a box, once per
+     * indexed section rather than once per block
      */
-    public void invalidateCache(Location location) {
-        int radius = 3; // Invalidate 3 block radius
-        World world = location.getWorld();
-        
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -radius; y <= radius; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    Location loc = location.clone().add(x, y, z);
-                    supportCache.remove(loc);
-                    cacheTimestamps.remove(loc);
-                }
-            }
+    public void invalidateCache(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        ConnectivityIndex index = indexes.get(world.getUID());
+        if (index != null) {
+            index.markChanged(minX, minY, minZ, maxX, maxY, maxZ);
         }
     }
     
@@ -219,63 +183,256 @@ public class StructureManager {
      * Get structural integrity percentage for a block (0-100)
      */
     public double getStructuralIntegrity(Location location) {
-        if (!hasStructuralSupport(location)) {
+        return getStructuralIntegrity(location.getBlock());
+    }
+    
+    /**
+     * Get structural integrity percentage for a block (0-100)
+     */
+    public double getStructuralIntegrity(Block block) {
+        if (block.getType() == Material.AIR
+                || !plugin.getConfigManager().isPhysicsBlock(block.getType())) {
             return 0.0;
         }
         
-        Set<Location> supports = supportCache.get(location);
-        if (supports == null) {
+        SupportComponent component = getComponent(block);
+        if (component == null || !component.isSupported()) {
             return 0.0;
         }
         
-        int maxPossibleSupports = plugin.getConfigManager().getMaxSupportDistance() * 2;
-        return Math.min(100.0, (supports.size() * 100.0) / maxPossibleSupports);
+        return getIntegrity(component, plugin.getConfigManager().getMaxSupportDistance());
+    }
+    
+    /**
+     * Integrity percentage (0-100) of the blocks of a supported component
+     */
+    private static double getIntegrity(SupportComponent component, int maxSupportDistance) {
+        int maxPossibleSupports = maxSupportDistance * 2;
+        int supports = component.getAnchorCount() + component.getOutsideCount();
+        return Math.min(100.0, (supports * 100.0) / maxPossibleSupports);
     }
     
     /**
-     * Analyze structural integrity of an area
+     * Analyze structural integrity of an area, passing every physics block to a
+     * visitor as it is reached. Nothing is collected, so memory use does not
+     * grow with the radius. Runs on the main thread; prefer
+     * {@link #analyzeAreaAsync} for large areas.
      */
-    public Map<Location, Double> analyzeArea(Location center, int radius) {
-        Map<Location, Double> analysis = new HashMap<>();
+    public void analyzeArea(Location center, int radius, IntegrityVisitor visitor) {
         World world = center.getWorld();
+        BlockView view = new WorldBlockView(world, plugin.getConfigManager().getPhysicsBlocks(),
+            plugin.getConfigManager().getSupportBlocks());
+        analyzeBox(view, getIndex(world), plugin.getConfigManager().getMaxSupportDistance(),
+            getBounds(center, radius), visitor);
+    }
+    
+    /**
+     * Analyze structural integrity of an area off the main thread.
+     *
+     * The area and everything within the support distance around it are
+     * captured as chunk snapshots first, so this must be called on the main
+     * thread. The area is then split into sub-boxes of a few chunk columns,
+     * analysed in parallel on the common fork/join pool. Each sub-box builds
+     * its own connectivity index over the shared snapshot, so workers never
+     * contend, and each structure is traversed once per sub-box however many
+     * of its blocks are in it. Support only depends on the blocks within the
+     * search box of each block, so the result is the same as in one pass.
+     * Each sub-box folds its blocks into an {@link AreaAnalysis} that is
+     * merged with the others, so memory stays constant per sub-box.
+     *
+     * While the analysis runs, the progress callback receives the fraction of
+     * sections done about once per second. Both callbacks run on the main thread.
+     */
+    public void analyzeAreaAsync(Location center, int radius, DoubleConsumer progress, Consumer<AreaAnalysis> callback) {
+        World world = center.getWorld();
+        int searchRadius = plugin.getConfigManager().getMaxSupportDistance();
+        int minSupport = plugin.getConfigManager().getMinSupportBlocks();
+        long centerKey = BlockKey.pack(center.getBlockX(), center.getBlockY(), center.getBlockZ());
+        SnapshotBlockView view = SnapshotBlockView.capture(world, new long[]{centerKey}, radius + searchRadius,
+            plugin.getConfigManager().getPhysicsBlocks(), plugin.getConfigManager().getSupportBlocks());
+        
+        int[] bounds = getBounds(center, radius);
+        int sectionCount = ((bounds[3] >> 4) - (bounds[0] >> 4) + 1)
+                * ((bounds[4] >> 4) - (bounds[1] >> 4) + 1) * ((bounds[5] >> 4) - (bounds[2] >> 4) + 1);
+        AtomicInteger completed = new AtomicInteger();
+        BukkitTask progressTask = Bukkit.getScheduler().runTaskTimer(plugin,
+            () -> progress.accept(completed.get() / (double) sectionCount), 20L, 20L);
         
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -radius; y <= radius; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    Location loc = center.clone().add(x, y, z);
-                    Block block = world.getBlockAt(loc);
-                    
-                    if (block.getType() != Material.AIR && 
-                        plugin.getConfigManager().getPhysicsBlocks().contains(block.getType())) {
-                        analysis.put(loc.clone(), getStructuralIntegrity(loc));
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.nanoTime();
+            AreaAnalysis analysis;
+            try {
+                analysis = ForkJoinPool.commonPool().invoke(
+                    new AnalysisTask(view, searchRadius, minSupport, bounds, completed));
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "Async area analysis failed", e);
+                analysis = new AreaAnalysis();
+            } finally {
+                // Stop reporting progress however the analysis ended
+                progressTask.cancel();
+            }
+            analysis.setElapsedNanos(System.nanoTime() - start);
+            
+            if (plugin.isEnabled()) {
+                AreaAnalysis result = analysis;
+                Bukkit.getScheduler().runTask(plugin, () -> callback.accept(result));
+            }
+        });
+    }
+    
+    /**
+     * Clamp the cube of the given radius around a location to the world height
+     *
+     * @return min x, y, z followed by max x, y, z, all inclusive
+     */
+    private static int[] getBounds(Location center, int radius) {
+        World world = center.getWorld();
+        return new int[]{
+            center.getBlockX() - radius,
+            Math.max(world.getMinHeight(), center.getBlockY() - radius),
+            center.getBlockZ() - radius,
+            center.getBlockX() + radius,
+            Math.min(world.getMaxHeight() - 1, center.getBlockY() + radius),
+            center.getBlockZ() + radius
+        };
+    }
+    
+    /**
+     * Visit every physics block inside the given bounds with its integrity
+     */
+    private static void analyzeBox(BlockView view, ConnectivityIndex index, int maxSupportDistance,
+                                   int[] bounds, IntegrityVisitor visitor) {
+        // Blocks of one structure share a component, so only its first block pays for the traversal
+        SupportComponent last = null;
+        double lastIntegrity = 0.0;
+        for (int y = bounds[1]; y <= bounds[4]; y++) {
+            for (int z = bounds[2]; z <= bounds[5]; z++) {
+                for (int x = bounds[0]; x <= bounds[3]; x++) {
+                    if (view.getKind(x, y, z) != BlockView.PHYSICS) {
+                        continue;
                     }
+                    SupportComponent component = index.getComponent(x, y, z);
+                    if (component != last) {
+                        last = component;
+                        lastIntegrity = component == null || !component.isSupported()
+                                ? 0.0 : getIntegrity(component, maxSupportDistance);
+                    }
+                    visitor.visit(BlockKey.pack(x, y, z), lastIntegrity);
                 }
             }
         }
-        
-        return analysis;
     }
     
     /**
-     * Clean up old cache entries
+     * Analyses a box of blocks, splitting it in halves along x or z down to
+     * sub-boxes of at most {@link #LEAF_CHUNKS} chunk columns per axis, each
+     * with a connectivity index of its own
      */
-    public void cleanupCache() {
-        long currentTime = System.currentTimeMillis();
-        List<Location> toRemove = new ArrayList<>();
+    private static final class AnalysisTask extends RecursiveTask<AreaAnalysis> {
         
-        for (Map.Entry<Location, Long> entry : cacheTimestamps.entrySet()) {
-            if (currentTime - entry.getValue() > cacheExpiration) {
-                toRemove.add(entry.getKey());
-            }
+        private static final int LEAF_CHUNKS = 2;
+        
+        private final BlockView view;
+        private final int maxSupportDistance;
+        private final int minSupport;
+        private final int[] bounds;
+        private final AtomicInteger completed;
+        
+        AnalysisTask(BlockView view, int maxSupportDistance, int minSupport, int[] bounds, AtomicInteger completed) {
+            this.view = view;
+            this.maxSupportDistance = maxSupportDistance;
+            this.minSupport = minSupport;
+            this.bounds = bounds;
+            this.completed = completed;
         }
         
-        for (Location location : toRemove) {
-            supportCache.remove(location);
-            cacheTimestamps.remove(location);
+        @Override
+        protected AreaAnalysis compute() {
+            int chunksX = (bounds[3] >> 4) - (bounds[0] >> 4) + 1;
+            int chunksZ = (bounds[5] >> 4) - (bounds[2] >> 4) + 1;
+            if (chunksX > LEAF_CHUNKS || chunksZ > LEAF_CHUNKS) {
+                // Split on a chunk border of the longer axis, so no section is shared by two halves
+                int axis = chunksX >= chunksZ ? 0 : 2;
+                int middle = ((bounds[axis] >> 4) + (chunksX >= chunksZ ? chunksX : chunksZ) / 2) << 4;
+                int[] lower = bounds.clone();
+                int[] upper = bounds.clone();
+                lower[axis + 3] = middle - 1;
+                upper[axis] = middle;
+                AnalysisTask left = new AnalysisTask(view, maxSupportDistance, minSupport, lower, completed);
+                AnalysisTask right = new AnalysisTask(view, maxSupportDistance, minSupport, upper, completed);
+                left.fork();
+                AreaAnalysis result = right.compute();
+                return result.merge(left.join());
+            }
+            
+            AreaAnalysis result = new AreaAnalysis();
+            ConnectivityIndex index = new ConnectivityIndex(view, maxSupportDistance, minSupport);
+            for (int sy = bounds[1] >> 4; sy <= bounds[4] >> 4; sy++) {
+                // One layer of sections at a time, for progress
+                int[] layer = bounds.clone();
+                layer[1] = Math.max(bounds[1], sy << 4);
+                layer[4] = Math.min(bounds[4], (sy << 4) + 15);
+                analyzeBox(view, index, maxSupportDistance, layer, result);
+                completed.addAndGet(chunksX * chunksZ);
+            }
+            return result;
         }
     }
     
+    /**
+     * Forget the indexed sections of an unloaded chunk
+     */
+    public void unloadChunk(World world, int chunkX, int chunkZ) {
+        ConnectivityIndex index = indexes.get(world.getUID());
+        if (index != null) {
+            index.unloadChunk(chunkX, chunkZ);
+        }
+    }
+    
+    /**
+     * Forget everything indexed for an unloaded world
+     */
+    public void unloadWorld(World world) {
+        ConnectivityIndex index = indexes.remove(world.getUID());
+        if (index != null) {
+            index.clear();
+        }
+    }
+    
+    /**
+     * Clean up sections that have not been queried recently, and have the
+     * others read again once they are as old, so block changes without an
+     * event are picked up
+     */
+    public void cleanupCache() {
+        long maxAgeMillis = plugin.getConfigManager().getCacheExpiration() * 1000L;
+        for (ConnectivityIndex index : indexes.values()) {
+            index.evictIdle(maxAgeMillis);
+            index.expireOlderThan(maxAgeMillis);
+        }
+    }
+    
+    /**
+     * Drop all indexes, e.g. after the physics or support materials changed
+     */
+    public void clearCache() {
+        for (ConnectivityIndex index : indexes.values()) {
+            index.clear();
+        }
+        indexes.clear();
+        
+        // Recreated on next use so a changed budget takes effect
+        sectionCache = null;
+    }
+    
+    /**
+     * Number of indexed chunk sections across all worlds
+     */
     public int getCacheSize() {
-        return supportCache.size();
+        int size = 0;
+        for (ConnectivityIndex index : indexes.values()) {
+            size += index.getSectionCount();
+        }
+        return size;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package avx.physics.structure;
+
+/**
+ * Integrity statistics of the physics blocks in an area: counters and a
+ * histogram in steps of 10%, folded as blocks are visited so memory stays
+ * constant whatever the size of the area.
+ *
+ * Partial results computed for separate parts of the area are combined with
+ * {@link #merge}.
+ */
+public final class AreaAnalysis implements IntegrityVisitor {
+    
+    public static final double STABLE_INTEGRITY = 75.0;
+    public static final double CRITICAL_INTEGRITY = 25.0;
+    public static final int HISTOGRAM_BUCKETS = 10;
+    
+    private final int[] histogram = new int[HISTOGRAM_BUCKETS];
+    private int blockCount;
+    private double totalIntegrity;
+    private int stableBlocks;
+    private int unstableBlocks;
+    private int criticalBlocks;
+    private long elapsedNanos;
+    
+    @Override
+    public void visit(long blockKey, double integrity) {
+        add(integrity);
+    }
+    
+    /**
+     * Record one physics block with the given integrity (0-100)
+     */
+    public void add(double integrity) {
+        histogram[Math.min(HISTOGRAM_BUCKETS - 1, (int) (integrity / (100.0 / HISTOGRAM_BUCKETS)))]++;
+        blockCount++;
+        totalIntegrity += integrity;
+        if (integrity >= STABLE_INTEGRITY) {
+            stableBlocks++;
+        } else if (integrity >= CRITICAL_INTEGRITY) {
+            unstableBlocks++;
+        } else {
+            criticalBlocks++;
+        }
+    }
+    
+    /**
+     * Add the blocks of another partial result to this one
+     */
+    public AreaAnalysis merge(AreaAnalysis other) {
+        blockCount += other.blockCount;
+        totalIntegrity += other.totalIntegrity;
+        stableBlocks += other.stableBlocks;
+        unstableBlocks += other.unstableBlocks;
+        criticalBlocks += other.criticalBlocks;
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            histogram[i] += other.histogram[i];
+        }
+        return this;
+    }
+    
+    public boolean isEmpty() {
+        return blockCount == 0;
+    }
+    
+    public int getBlockCount() {
+        return blockCount;
+    }
+    
+    public double getAverageIntegrity() {
+        return blockCount == 0 ? 0.0 : totalIntegrity / blockCount;
+    }
+    
+    public int getStableBlocks() {
+        return stableBlocks;
+    }
+    
+    public int getUnstableBlocks() {
+        return unstableBlocks;
+    }
+    
+    public int getCriticalBlocks() {
+        return criticalBlocks;
+    }
+    
+    /**
+     * Number of blocks per integrity step: bucket i counts integrities from i * 10% up to (i + 1) * 10%,
+     * the last bucket includes 100%
+     */
+    public int getHistogramCount(int bucket) {
+        return histogram[bucket];
+    }
+    
+    /**
+     * Wall time spent analysing the area, excluding the snapshot capture
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package avx.physics.structure;
+
+/**
+ * Read-only view of the blocks of a world, reduced to what the structural
+ * analysis needs to know about each position.
+ */
+public interface BlockView {
+    
+    /** Air and any block that neither falls nor carries load */
+    byte NONE = 0;
+    
+    /** Block that has physics and needs support */
+    byte PHYSICS = 1;
+    
+    /** Block that never falls and anchors whatever rests on it */
+    byte SUPPORT = 2;
+    
+    /** Position in a chunk that is not loaded, contents unknown */
+    byte UNLOADED = 3;
+    
+    /**
+     * Get the structural kind of the block at the given position
+     */
+    byte getKind(int x, int y, int z);
+    
+    /**
+     * Check if the chunk column with the given chunk coordinates can be read
+     */
+    boolean isChunkLoaded(int chunkX, int chunkZ);
+    
+    /**
+     * Get an upper bound for the height of the blocks in a column: every
+     * position above it is known to read as {@link #NONE}. Views without a
+     * heightmap return the top of the world.
+     */
+    default int getHighestBlockY(int x, int z) {
+        return getMaxHeight() - 1;
+    }
+    
+    /**
+     * Check if a chunk section is known to contain nothing but air
+     */
+    default boolean isSectionEmpty(int sectionX, int sectionY, int sectionZ) {
+        return false;
+    }
+    
+    int getMinHeight();
+    
+    int getMaxHeight();
+}
\ No newline at end of file
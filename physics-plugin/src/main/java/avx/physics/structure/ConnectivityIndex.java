@@ -0,0 +1,535 @@
+package avx.physics.structure;
+
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongArrayQueue;
+import avx.physics.utils.LongHashSet;
+import avx.physics.utils.LongObjectHashMap;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incremental connectivity index of the physics structures of one world.
+ *
+ * The world is indexed lazily per chunk section. Inside a section, connected
+ * physics/support blocks are labelled once; a block change only bumps the
+ * generation of the touching sections in O(1) and they are relabelled on
+ * next access. Changes nobody reports are caught by reading sections again
+ * once they reach a maximum age. Sections are linked into
+ * {@link SupportComponent}s on demand and the result is reused by every block
+ * of the component in the same section with the same search box until one of
+ * its sections changes, so support lookups cost a hash probe and an array
+ * read in the common case.
+ *
+ * A query only links and counts anchors in the sections within the search
+ * radius of the queried block, its search box, and indexes all of them the
+ * component reaches into. Components that continue downwards past the box or
+ * into an unloaded chunk are treated as supported, as their support cannot be
+ * seen; sideways spans past the box are not. The answer so depends on the
+ * blocks in the box alone, never on which sections earlier queries left
+ * indexed. Indexed sections count against a
+ * {@link SectionCache} budget, which may be shared by the indexes of several
+ * worlds.
+ *
+ * The index is thread-safe. Lookups also write (sections are loaded and
+ * linked lazily), so resolving a component holds the lock of its index;
+ * indexes of different worlds never contend. Labels and kinds are
+ * copy-on-write per section, so a returned component is an immutable snapshot
+ * and its blocks are visited without the lock. The view must itself be safe
+ * to read from the calling threads.
+ */
+public class ConnectivityIndex {
+    
+    private final BlockView view;
+    private final int searchRadius;
+    private final int minSupport;
+    private final int floorY;
+    private final int minSectionY;
+    private final int maxSectionY;
+    private final LongObjectHashMap<StructureSection> sections;
+    private final SectionCache cache;
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    public ConnectivityIndex(BlockView view, int searchRadius, int minSupport) {
+        this(view, searchRadius, minSupport, new SectionCache(Long.MAX_VALUE));
+    }
+    
+    public ConnectivityIndex(BlockView view, int searchRadius, int minSupport, SectionCache cache) {
+        this.view = view;
+        this.searchRadius = searchRadius;
+        this.minSupport = minSupport;
+        this.floorY = view.getMinHeight() + 5;
+        this.minSectionY = view.getMinHeight() >> 4;
+        this.maxSectionY = (view.getMaxHeight() - 1) >> 4;
+        this.sections = new LongObjectHashMap<>();
+        this.cache = cache;
+    }
+    
+    public static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return BlockKey.pack(sectionX, sectionY, sectionZ);
+    }
+    
+    /**
+     * Get the component containing the given block, or null if the block is not
+     * a physics or support block (or lies in an unloaded chunk).
+     *
+     * The returned component describes the world as it was at the time of the call,
+     * with every block it has within the search box of the given block.
+     */
+    public SupportComponent getComponent(int x, int y, int z) {
+        return getComponent(x, y, z, true);
+    }
+    
+    /**
+     * @param complete false to stop indexing the search box as soon as the
+     *                 component is known to be supported, leaving its counts short
+     */
+    private SupportComponent getComponent(int x, int y, int z, boolean complete) {
+        lock.lock();
+        try {
+            // Evict between queries only, so sections are never dropped while a component is being linked
+            cache.evictOverBudget();
+            
+            StructureSection section = getOrLoadSection(x >> 4, y >> 4, z >> 4);
+            if (section == null) {
+                return null;
+            }
+            section.lastAccess = System.currentTimeMillis();
+            
+            int cell = StructureSection.cellIndex(x & 15, y & 15, z & 15);
+            int[] box = searchBox(x, y, z);
+            SupportComponent component = resolve(section, cell, box);
+            
+            // Index the rest of the box the component reaches into, so the answer never depends on earlier queries
+            while (component != null && (complete || !component.isSupported())
+                    && !component.frontierSections.isEmpty() && expand(component)) {
+                component = resolve(section, cell, box);
+            }
+            return component;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Check if the block at the given position has structural support
+     */
+    public boolean isSupported(int x, int y, int z) {
+        SupportComponent component = getComponent(x, y, z, false);
+        return component == null || component.isSupported();
+    }
+    
+    /**
+     * Collect every physics block of the unsupported structures containing the given blocks
+     */
+    public LongHashSet findUnsupported(long[] keys) {
+        LongHashSet unsupported = new LongHashSet();
+        findUnsupported(keys, unsupported);
+        return unsupported;
+    }
+    
+    /**
+     * Add every physics block of the unsupported structures containing the given
+     * blocks to a set. Blocks already in the set are not looked up again.
+     * The lock is only held while each component is resolved.
+     *
+     * A block of an unsupported structure is only added if it is unsupported
+     * within its own search box too: near the edge of the box of the queried
+     * block, its own box may reach support the queried one cannot see.
+     */
+    public void findUnsupported(long[] keys, LongHashSet unsupported) {
+        LongHashSet supported = new LongHashSet();
+        for (long key : keys) {
+            if (unsupported.contains(key) || supported.contains(key)) {
+                continue;
+            }
+            // Unsupported components are always complete
+            SupportComponent component = getComponent(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key), false);
+            if (component == null || component.isSupported()) {
+                supported.add(key);
+                continue;
+            }
+            component.forEachPhysicsBlock(block -> {
+                if (unsupported.contains(block) || supported.contains(block)) {
+                    return;
+                }
+                int x = BlockKey.getX(block);
+                int y = BlockKey.getY(block);
+                int z = BlockKey.getZ(block);
+                // Blocks with the same search box are in the same component, so their search failed as well
+                if (hasSearchBox(component.box, x, y, z) || !isSupported(x, y, z)) {
+                    unsupported.add(block);
+                } else {
+                    supported.add(block);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Record that the block at the given position changed.
+     * Every indexed section whose contents or halo include it is refreshed lazily.
+     */
+    public void markChanged(int x, int y, int z) {
+        lock.lock();
+        try {
+            for (int sx = (x - 1) >> 4; sx <= (x + 1) >> 4; sx++) {
+                for (int sy = (y - 1) >> 4; sy <= (y + 1) >> 4; sy++) {
+                    for (int sz = (z - 1) >> 4; sz <= (z + 1) >> 4; sz++) {
+                        StructureSection section = sections.get(sectionKey(sx, sy, sz));
+                        if (section != null) {
+                            section.markDirty(x - (sx << 4), y - (sy << 4), z - (sz << 4));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Record that any block in a box may have changed, such as the blocks
+     * of an explosion. Every indexed section whose contents or halo overlap
+     * the box is marked once, however many blocks it holds.
+     */
+    public void markChanged(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        lock.lock();
+        try {
+            for (int sx = (minX - 1) >> 4; sx <= (maxX + 1) >> 4; sx++) {
+                for (int sy = (minY - 1) >> 4; sy <= (maxY + 1) >> 4; sy++) {
+                    for (int sz = (minZ - 1) >> 4; sz <= (maxZ + 1) >> 4; sz++) {
+                        StructureSection section = sections.get(sectionKey(sx, sy, sz));
+                        if (section == null) {
+                            continue;
+                        }
+                        // The box clipped to the section and its halo
+                        int baseX = sx << 4;
+                        int baseY = sy << 4;
+                        int baseZ = sz << 4;
+                        section.markDirty(
+                            Math.max(minX - baseX, -1), Math.max(minY - baseY, -1), Math.max(minZ - baseZ, -1),
+                            Math.min(maxX - baseX, 16), Math.min(maxY - baseY, 16), Math.min(maxZ - baseZ, 16));
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Drop every indexed section of a chunk column
+     */
+    public void unloadChunk(int chunkX, int chunkZ) {
+        lock.lock();
+        try {
+            for (int sy = minSectionY; sy <= maxSectionY; sy++) {
+                removeSection(sectionKey(chunkX, sy, chunkZ));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Drop sections that have not been queried for the given time
+     */
+    public int evictIdle(long maxIdleMillis) {
+        lock.lock();
+        try {
+            long cutoff = System.currentTimeMillis() - maxIdleMillis;
+            LongArrayQueue idle = new LongArrayQueue();
+            sections.forEach((key, section) -> {
+                if (section.lastAccess < cutoff) {
+                    idle.offer(key);
+                }
+            });
+            
+            int evicted = idle.size();
+            while (!idle.isEmpty()) {
+                removeSection(idle.poll());
+            }
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Read sections again that were last read from the view longer ago than
+     * the given time, on their next access. Catches block changes no event
+     * reported.
+     *
+     * @return number of sections marked
+     */
+    public int expireOlderThan(long maxAgeMillis) {
+        lock.lock();
+        try {
+            long cutoff = System.currentTimeMillis() - maxAgeMillis;
+            int[] expired = {0};
+            sections.forEach((key, section) -> {
+                if (section.loadedAt < cutoff) {
+                    section.markStale();
+                    expired[0]++;
+                }
+            });
+            return expired[0];
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void clear() {
+        lock.lock();
+        try {
+            sections.forEach((key, section) -> {
+                section.invalidateComponents();
+                cache.remove(section);
+            });
+            sections.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getSectionCount() {
+        lock.lock();
+        try {
+            return sections.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private StructureSection getOrLoadSection(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY < minSectionY || sectionY > maxSectionY) {
+            return null;
+        }
+        
+        long key = sectionKey(sectionX, sectionY, sectionZ);
+        StructureSection section = sections.get(key);
+        if (section != null) {
+            section.refresh(view, floorY);
+            cache.updateWeight(section);
+            cache.recordHit(section);
+            return section;
+        }
+        
+        if (!view.isChunkLoaded(sectionX, sectionZ)) {
+            return null;
+        }
+        
+        section = new StructureSection(sectionX, sectionY, sectionZ);
+        section.load(view, floorY);
+        section.lastAccess = System.currentTimeMillis();
+        sections.put(key, section);
+        cache.add(section, this);
+        
+        // Neighbouring components may now link into this section instead of ending at a frontier
+        invalidateNeighbours(sectionX, sectionY, sectionZ);
+        return section;
+    }
+    
+    private void removeSection(long key) {
+        StructureSection section = sections.remove(key);
+        if (section != null) {
+            section.invalidateComponents();
+            cache.remove(section);
+            invalidateNeighbours(section.sectionX, section.sectionY, section.sectionZ);
+        }
+    }
+    
+    /**
+     * Drop a section chosen by the cache to stay within its budget.
+     * Gives up if another thread is using this index, so indexes sharing a
+     * cache never wait on each other.
+     *
+     * @return true if the section is no longer indexed
+     */
+    boolean tryEvict(StructureSection section) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (sections.get(section.key) == section) {
+                removeSection(section.key);
+            } else {
+                cache.remove(section);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void invalidateNeighbours(int sectionX, int sectionY, int sectionZ) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    StructureSection neighbour = sections.get(sectionKey(sectionX + dx, sectionY + dy, sectionZ + dz));
+                    if (neighbour != null) {
+                        neighbour.invalidateComponents();
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Sections within the search radius of a block: min x, y, z then max x, y, z
+     */
+    private int[] searchBox(int x, int y, int z) {
+        return new int[]{
+            (x - searchRadius) >> 4, (y - searchRadius) >> 4, (z - searchRadius) >> 4,
+            (x + searchRadius) >> 4, (y + searchRadius) >> 4, (z + searchRadius) >> 4
+        };
+    }
+    
+    /**
+     * Get the up-to-date component of a cell within a search box, linking sections if needed
+     */
+    private SupportComponent resolve(StructureSection section, int cell, int[] box) {
+        section.refresh(view, floorY);
+        int label = section.getLabel(cell);
+        if (label == 0) {
+            return null;
+        }
+        
+        SupportComponent component = section.components[label];
+        while (component != null && !Arrays.equals(component.box, box)) {
+            component = component.next;
+        }
+        if (component != null && component.isValid()) {
+            return component;
+        }
+        return link(section, label, box);
+    }
+    
+    /**
+     * Walk across section boundaries to collect every label connected to the
+     * given one, without leaving the search box
+     */
+    private SupportComponent link(StructureSection start, int startLabel, int[] box) {
+        SupportComponent component = new SupportComponent(box);
+        ArrayDeque<StructureSection> pendingSections = new ArrayDeque<>();
+        LongArrayQueue pendingLabels = new LongArrayQueue();
+        LongHashSet linked = new LongHashSet();
+        
+        // Only the start section keeps the component, next to those of its other boxes that are still valid
+        SupportComponent other = start.components[startLabel];
+        while (other != null) {
+            SupportComponent following = other.next;
+            if (other.isValid() && !Arrays.equals(other.box, box)) {
+                other.next = component.next;
+                component.next = other;
+            }
+            other = following;
+        }
+        start.components[startLabel] = component;
+        linked.add(linkKey(box, start, startLabel));
+        pendingSections.add(start);
+        pendingLabels.offer(startLabel);
+        
+        while (!pendingSections.isEmpty()) {
+            StructureSection section = pendingSections.poll();
+            int label = (int) pendingLabels.poll();
+            component.addMember(section, label);
+            
+            int baseX = section.sectionX << 4;
+            int baseY = section.sectionY << 4;
+            int baseZ = section.sectionZ << 4;
+            StructureSection cached = null;
+            
+            for (int i = section.boundaryStart[label]; i < section.boundaryStart[label + 1]; i++) {
+                int cell = section.boundaryCells[i];
+                int lx = cell & 15;
+                int lz = (cell >> 4) & 15;
+                int ly = cell >> 8;
+                
+                for (int d = 0; d < StructureSection.DX.length; d++) {
+                    int nx = lx + StructureSection.DX[d];
+                    int ny = ly + StructureSection.DY[d];
+                    int nz = lz + StructureSection.DZ[d];
+                    if (nx >= 0 && nx <= 15 && ny >= 0 && ny <= 15 && nz >= 0 && nz <= 15) {
+                        continue;
+                    }
+                    
+                    int wx = baseX + nx;
+                    int wy = baseY + ny;
+                    int wz = baseZ + nz;
+                    byte kind = section.kinds[StructureSection.haloIndex(nx, ny, nz)];
+                    if (!inBox(box, wx >> 4, wy >> 4, wz >> 4)) {
+                        if (StructureSection.isNode(kind) && wy >> 4 < box[1]) {
+                            component.addOutside();
+                        }
+                        continue;
+                    }
+                    long neighbourKey = sectionKey(wx >> 4, wy >> 4, wz >> 4);
+                    
+                    StructureSection neighbour = cached != null && cached.key == neighbourKey
+                            ? cached : sections.get(neighbourKey);
+                    if (neighbour == null) {
+                        if (kind == BlockView.UNLOADED && !view.isChunkLoaded(wx >> 4, wz >> 4)) {
+                            // Contents unknown, so builds running into unloaded chunks do not collapse
+                            component.addOutside();
+                        } else if (StructureSection.isNode(kind) || kind == BlockView.UNLOADED) {
+                            component.addFrontier(neighbourKey);
+                        }
+                        continue;
+                    }
+                    cached = neighbour;
+                    
+                    neighbour.refresh(view, floorY);
+                    cache.updateWeight(neighbour);
+                    cache.touch(neighbour);
+                    int neighbourLabel = neighbour.getLabel(StructureSection.cellIndex(wx & 15, wy & 15, wz & 15));
+                    if (neighbourLabel != 0 && linked.add(linkKey(box, neighbour, neighbourLabel))) {
+                        pendingSections.add(neighbour);
+                        pendingLabels.offer(neighbourLabel);
+                    }
+                }
+            }
+        }
+        
+        component.complete(minSupport);
+        return component;
+    }
+    
+    private boolean hasSearchBox(int[] box, int x, int y, int z) {
+        return box[0] == (x - searchRadius) >> 4 && box[1] == (y - searchRadius) >> 4 && box[2] == (z - searchRadius) >> 4
+                && box[3] == (x + searchRadius) >> 4 && box[4] == (y + searchRadius) >> 4 && box[5] == (z + searchRadius) >> 4;
+    }
+    
+    private static boolean inBox(int[] box, int sectionX, int sectionY, int sectionZ) {
+        return sectionX >= box[0] && sectionY >= box[1] && sectionZ >= box[2]
+                && sectionX <= box[3] && sectionY <= box[4] && sectionZ <= box[5];
+    }
+    
+    /**
+     * Key of a section label while linking, unique within one search box
+     */
+    private static long linkKey(int[] box, StructureSection section, int label) {
+        long offset = ((long) (section.sectionX - box[0]) * (box[4] - box[1] + 1) + (section.sectionY - box[1]))
+                * (box[5] - box[2] + 1) + (section.sectionZ - box[2]);
+        return offset << 16 | label;
+    }
+    
+    /**
+     * Index the unread sections of the search box a component reaches into.
+     * Sections of chunks unloaded since the component was linked stay unread.
+     *
+     * @return true if at least one section was added
+     */
+    private boolean expand(SupportComponent component) {
+        boolean expanded = false;
+        for (long key : component.frontierSections.toArray()) {
+            if (sections.get(key) == null
+                    && getOrLoadSection(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key)) != null) {
+                expanded = true;
+            }
+        }
+        return expanded;
+    }
+}
\ No newline at end of file
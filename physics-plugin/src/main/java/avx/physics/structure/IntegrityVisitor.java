@@ -0,0 +1,16 @@
+package avx.physics.structure;
+
+/**
+ * Receives the structural integrity of each physics block visited by an
+ * area analysis, so results can be folded as they are produced instead of
+ * being collected first.
+ */
+@FunctionalInterface
+public interface IntegrityVisitor {
+    
+    /**
+     * @param blockKey  packed position of the block, see {@link avx.physics.data.BlockKey}
+     * @param integrity integrity of the block (0-100)
+     */
+    void visit(long blockKey, double integrity);
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package avx.physics.structure;
+
+/**
+ * Memory budget and LRU order for the sections of one or more
+ * {@link ConnectivityIndex}es.
+ *
+ * Sections are kept in an intrusive doubly linked list, most recently used
+ * first, with their estimated size in bytes. When the total goes over the
+ * budget the least recently used sections are evicted from their index.
+ * Also counts section hits, misses and evictions. Thread-safe; the cache
+ * lock is always taken after, never before, the lock of an index.
+ */
+public class SectionCache {
+    
+    private final long maxBytes;
+    private long usedBytes;
+    private int size;
+    private StructureSection head;
+    private StructureSection tail;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    /**
+     * @param maxBytes estimated memory the sections may use, Long.MAX_VALUE for no limit
+     */
+    public SectionCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    synchronized void recordHit(StructureSection section) {
+        hits++;
+        touch(section);
+    }
+    
+    /**
+     * Start tracking a newly loaded section as the most recently used one
+     */
+    synchronized void add(StructureSection section, ConnectivityIndex owner) {
+        misses++;
+        section.owner = owner;
+        section.weight = section.estimateBytes();
+        usedBytes += section.weight;
+        size++;
+        linkFirst(section);
+    }
+    
+    /**
+     * Mark a section as the most recently used one
+     */
+    synchronized void touch(StructureSection section) {
+        if (section != head && section.owner != null) {
+            unlink(section);
+            linkFirst(section);
+        }
+    }
+    
+    /**
+     * Re-estimate the size of a section after it was relabelled
+     */
+    synchronized void updateWeight(StructureSection section) {
+        if (section.owner == null) {
+            return;
+        }
+        long weight = section.estimateBytes();
+        usedBytes += weight - section.weight;
+        section.weight = weight;
+    }
+    
+    /**
+     * Stop tracking a section that was removed from its index
+     */
+    synchronized void remove(StructureSection section) {
+        if (section.owner == null) {
+            return;
+        }
+        unlink(section);
+        usedBytes -= section.weight;
+        size--;
+        section.owner = null;
+    }
+    
+    /**
+     * Evict least recently used sections until the budget is met. The most
+     * recently used section is always kept, and eviction stops early at a
+     * section whose index is busy on another thread.
+     */
+    void evictOverBudget() {
+        while (true) {
+            StructureSection victim;
+            ConnectivityIndex owner;
+            synchronized (this) {
+                if (usedBytes <= maxBytes || tail == null || tail == head) {
+                    return;
+                }
+                victim = tail;
+                owner = victim.owner;
+            }
+            // Outside the cache lock: the owner takes its own lock first
+            if (!owner.tryEvict(victim)) {
+                return;
+            }
+            synchronized (this) {
+                evictions++;
+            }
+        }
+    }
+    
+    private void linkFirst(StructureSection section) {
+        section.lruPrev = null;
+        section.lruNext = head;
+        if (head != null) {
+            head.lruPrev = section;
+        }
+        head = section;
+        if (tail == null) {
+            tail = section;
+        }
+    }
+    
+    private void unlink(StructureSection section) {
+        if (section.lruPrev != null) {
+            section.lruPrev.lruNext = section.lruNext;
+        } else {
+            head = section.lruNext;
+        }
+        if (section.lruNext != null) {
+            section.lruNext.lruPrev = section.lruPrev;
+        } else {
+            tail = section.lruPrev;
+        }
+        section.lruPrev = null;
+        section.lruNext = null;
+    }
+    
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * Fraction of section lookups served from the cache
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
\ No newline at end of file
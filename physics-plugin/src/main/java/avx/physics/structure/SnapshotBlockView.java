@@ -0,0 +1,135 @@
+package avx.physics.structure;
+
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongObjectHashMap;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.Set;
+
+/**
+ * Block view over chunk snapshots captured on the main thread.
+ *
+ * The view never touches the live world, so it can be read from any thread
+ * once it has been built. Chunks that were not captured read as unloaded.
+ * Empty sections are taken from the snapshots, and the top of the highest
+ * non-empty section of each chunk serves as its heightmap.
+ */
+public class SnapshotBlockView implements BlockView {
+    
+    private final LongObjectHashMap<CapturedChunk> snapshots;
+    private final Set<Material> physicsBlocks;
+    private final Set<Material> supportBlocks;
+    private final int minHeight;
+    private final int maxHeight;
+    
+    private SnapshotBlockView(LongObjectHashMap<CapturedChunk> snapshots, Set<Material> physicsBlocks,
+                              Set<Material> supportBlocks, int minHeight, int maxHeight) {
+        this.snapshots = snapshots;
+        this.physicsBlocks = physicsBlocks;
+        this.supportBlocks = supportBlocks;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+    }
+    
+    /**
+     * Capture every loaded chunk within the given block radius of the given
+     * block keys. Must be called on the main thread; the material sets must
+     * not change afterwards.
+     */
+    public static SnapshotBlockView capture(World world, long[] keys, int radius,
+                                            Set<Material> physicsBlocks, Set<Material> supportBlocks) {
+        LongObjectHashMap<CapturedChunk> snapshots = new LongObjectHashMap<>();
+        for (long key : keys) {
+            int minChunkX = (BlockKey.getX(key) - radius) >> 4;
+            int maxChunkX = (BlockKey.getX(key) + radius) >> 4;
+            int minChunkZ = (BlockKey.getZ(key) - radius) >> 4;
+            int maxChunkZ = (BlockKey.getZ(key) + radius) >> 4;
+            
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    long chunkKey = BlockKey.chunkKey(chunkX, chunkZ);
+                    if (!snapshots.containsKey(chunkKey) && world.isChunkLoaded(chunkX, chunkZ)) {
+                        // Block types only, skip heightmaps and biomes
+                        ChunkSnapshot snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+                        snapshots.put(chunkKey, new CapturedChunk(snapshot, world.getMinHeight(), world.getMaxHeight()));
+                    }
+                }
+            }
+        }
+        
+        return new SnapshotBlockView(snapshots, physicsBlocks, supportBlocks, world.getMinHeight(), world.getMaxHeight());
+    }
+    
+    @Override
+    public byte getKind(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return NONE;
+        }
+        
+        CapturedChunk chunk = snapshots.get(BlockKey.chunkKey(x >> 4, z >> 4));
+        if (chunk == null) {
+            return UNLOADED;
+        }
+        
+        Material type = chunk.snapshot.getBlockType(x & 15, y, z & 15);
+        if (supportBlocks.contains(type)) {
+            return SUPPORT;
+        }
+        return physicsBlocks.contains(type) ? PHYSICS : NONE;
+    }
+    
+    @Override
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return snapshots.containsKey(BlockKey.chunkKey(chunkX, chunkZ));
+    }
+    
+    @Override
+    public int getHighestBlockY(int x, int z) {
+        CapturedChunk chunk = snapshots.get(BlockKey.chunkKey(x >> 4, z >> 4));
+        return chunk == null ? maxHeight - 1 : chunk.highestY;
+    }
+    
+    @Override
+    public boolean isSectionEmpty(int sectionX, int sectionY, int sectionZ) {
+        CapturedChunk chunk = snapshots.get(BlockKey.chunkKey(sectionX, sectionZ));
+        int index = sectionY - (minHeight >> 4);
+        return chunk != null && index >= 0 && index < chunk.emptySections.length && chunk.emptySections[index];
+    }
+    
+    @Override
+    public int getMinHeight() {
+        return minHeight;
+    }
+    
+    @Override
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+    
+    public int getChunkCount() {
+        return snapshots.size();
+    }
+    
+    private static final class CapturedChunk {
+        
+        final ChunkSnapshot snapshot;
+        final boolean[] emptySections;
+        final int highestY;
+        
+        CapturedChunk(ChunkSnapshot snapshot, int minHeight, int maxHeight) {
+            this.snapshot = snapshot;
+            int minSection = minHeight >> 4;
+            this.emptySections = new boolean[((maxHeight - 1) >> 4) - minSection + 1];
+            int highest = minHeight - 1;
+            for (int i = 0; i < emptySections.length; i++) {
+                emptySections[i] = snapshot.isSectionEmpty(i);
+                if (!emptySections[i]) {
+                    highest = ((minSection + i) << 4) + 15;
+                }
+            }
+            this.highestY = highest;
+        }
+    }
+}
\ No newline at end of file
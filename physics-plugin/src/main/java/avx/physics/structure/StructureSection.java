@@ -0,0 +1,393 @@
+package avx.physics.structure;
+
+import java.util.Arrays;
+
+/**
+ * One 16x16x16 chunk section of a {@link ConnectivityIndex}.
+ *
+ * Holds the structural kind of every block in the section plus a one block
+ * halo around it, and labels the connected groups of physics/support blocks
+ * that lie entirely inside the section. Groups are linked across sections by
+ * the index.
+ */
+final class StructureSection {
+    
+    static final int SIZE = 16;
+    static final int HALO_SIZE = SIZE + 2;
+    static final int CELLS = SIZE * SIZE * SIZE;
+    
+    /** Neighbour offsets used for connectivity: faces plus the vertical edge diagonals */
+    static final int[] DX = {0, 1, -1, 0, 0, 1, -1, 0, 0, 0, 1, -1, 0, 0};
+    static final int[] DY = {-1, 0, 0, 0, 0, -1, -1, -1, -1, 1, 1, 1, 1, 1};
+    static final int[] DZ = {0, 0, 0, 1, -1, 0, 0, 1, -1, 0, 0, 0, 1, -1};
+    
+    private static final int MAX_DIRTY_CELLS = 256;
+    
+    final int sectionX;
+    final int sectionY;
+    final int sectionZ;
+    final long key;
+    
+    /** Kinds of the section blocks and their halo, indexed by {@link #haloIndex}. Replaced on change, never modified once assigned. */
+    byte[] kinds = new byte[HALO_SIZE * HALO_SIZE * HALO_SIZE];
+    
+    /** Local group label of every block, 0 for blocks that are not part of a structure. Never modified once assigned. */
+    short[] labels;
+    int labelCount;
+    
+    /** Per label: number of anchoring blocks (support blocks and the world floor) */
+    int[] anchorCounts;
+    
+    /** Per label: number of physics blocks */
+    int[] blockCounts;
+    
+    /** Boundary cells grouped by label: cells of label l are boundaryCells[boundaryStart[l] .. boundaryStart[l + 1]) */
+    int[] boundaryStart;
+    int[] boundaryCells;
+    
+    /** Resolved component of every label, may be stale */
+    SupportComponent[] components;
+    
+    /**
+     * Bumped on every change to the section or to what its components can link to.
+     * Components remember the generation of each member section and are stale
+     * as soon as one differs.
+     */
+    int generation;
+    
+    long lastAccess;
+    
+    /** When the whole section was last read from the view */
+    long loadedAt;
+    
+    // Bookkeeping of the owning SectionCache
+    ConnectivityIndex owner;
+    StructureSection lruPrev;
+    StructureSection lruNext;
+    long weight;
+    
+    private boolean needsRelabel;
+    private boolean fullReload;
+    private int[] dirtyCells = new int[16];
+    private int dirtyCount;
+    
+    StructureSection(int sectionX, int sectionY, int sectionZ) {
+        this.sectionX = sectionX;
+        this.sectionY = sectionY;
+        this.sectionZ = sectionZ;
+        this.key = ConnectivityIndex.sectionKey(sectionX, sectionY, sectionZ);
+    }
+    
+    static int cellIndex(int lx, int ly, int lz) {
+        return (ly << 8) | (lz << 4) | lx;
+    }
+    
+    /**
+     * Index into {@link #kinds} for local coordinates in the range -1..16
+     */
+    static int haloIndex(int lx, int ly, int lz) {
+        return ((ly + 1) * HALO_SIZE + (lz + 1)) * HALO_SIZE + (lx + 1);
+    }
+    
+    /**
+     * Which of the three sections along one axis a halo coordinate (-1..16) falls in
+     */
+    private static int sectionOffset(int local) {
+        return local < 0 ? 0 : local < SIZE ? 1 : 2;
+    }
+    
+    static boolean isNode(byte kind) {
+        return kind == BlockView.PHYSICS || kind == BlockView.SUPPORT;
+    }
+    
+    /**
+     * Read the section and its halo from the view and label it.
+     * Blocks above the column heights or in sections known to be empty are
+     * not read at all, so sky and cave sections cost a few lookups.
+     */
+    void load(BlockView view, int floorY) {
+        int baseX = sectionX << 4;
+        int baseY = sectionY << 4;
+        int baseZ = sectionZ << 4;
+        byte[] newKinds = new byte[kinds.length];
+        
+        // Emptiness of this section and its 26 neighbours, indexed like the halo in steps of one section
+        boolean[] emptySections = new boolean[27];
+        boolean anyEmpty = false;
+        for (int i = 0; i < 27; i++) {
+            emptySections[i] = view.isSectionEmpty(sectionX + i % 3 - 1, sectionY + i / 9 - 1, sectionZ + (i / 3) % 3 - 1);
+            anyEmpty |= emptySections[i];
+        }
+        
+        int[] heights = new int[HALO_SIZE * HALO_SIZE];
+        int highest = Integer.MIN_VALUE;
+        for (int lz = -1; lz <= SIZE; lz++) {
+            for (int lx = -1; lx <= SIZE; lx++) {
+                int height = view.getHighestBlockY(baseX + lx, baseZ + lz);
+                heights[(lz + 1) * HALO_SIZE + (lx + 1)] = height;
+                highest = Math.max(highest, height);
+            }
+        }
+        
+        if (highest < baseY - 1) {
+            // Entire section and halo above the terrain
+            Arrays.fill(newKinds, BlockView.NONE);
+        } else {
+            int index = 0;
+            for (int ly = -1; ly <= SIZE; ly++) {
+                int wy = baseY + ly;
+                int sectionIndexY = sectionOffset(ly) * 9;
+                for (int lz = -1; lz <= SIZE; lz++) {
+                    int sectionIndexYZ = sectionIndexY + sectionOffset(lz) * 3;
+                    int column = (lz + 1) * HALO_SIZE;
+                    for (int lx = -1; lx <= SIZE; lx++) {
+                        if (wy > heights[column + lx + 1]
+                                || anyEmpty && emptySections[sectionIndexYZ + sectionOffset(lx)]) {
+                            newKinds[index++] = BlockView.NONE;
+                        } else {
+                            newKinds[index++] = view.getKind(baseX + lx, wy, baseZ + lz);
+                        }
+                    }
+                }
+            }
+        }
+        kinds = newKinds;
+        loadedAt = System.currentTimeMillis();
+        dirtyCount = 0;
+        fullReload = false;
+        relabel(floorY);
+    }
+    
+    /**
+     * Remember that a block inside the section or its halo changed.
+     * The block is re-read and the section relabelled on next access.
+     */
+    void markDirty(int lx, int ly, int lz) {
+        invalidateComponents();
+        needsRelabel = true;
+        if (fullReload) {
+            return;
+        }
+        if (dirtyCount == MAX_DIRTY_CELLS) {
+            fullReload = true;
+            return;
+        }
+        if (dirtyCount == dirtyCells.length) {
+            dirtyCells = Arrays.copyOf(dirtyCells, dirtyCells.length * 2);
+        }
+        dirtyCells[dirtyCount++] = haloIndex(lx, ly, lz);
+    }
+    
+    /**
+     * Remember that any block of a box inside the section or its halo may
+     * have changed, in local coordinates from -1 to 16. Same as marking each
+     * block, but components are invalidated once.
+     */
+    void markDirty(int minLx, int minLy, int minLz, int maxLx, int maxLy, int maxLz) {
+        invalidateComponents();
+        needsRelabel = true;
+        if (fullReload) {
+            return;
+        }
+        int volume = (maxLx - minLx + 1) * (maxLy - minLy + 1) * (maxLz - minLz + 1);
+        if (dirtyCount + volume > MAX_DIRTY_CELLS) {
+            fullReload = true;
+            return;
+        }
+        if (dirtyCount + volume > dirtyCells.length) {
+            dirtyCells = Arrays.copyOf(dirtyCells, Math.max(dirtyCells.length * 2, dirtyCount + volume));
+        }
+        for (int ly = minLy; ly <= maxLy; ly++) {
+            for (int lz = minLz; lz <= maxLz; lz++) {
+                for (int lx = minLx; lx <= maxLx; lx++) {
+                    dirtyCells[dirtyCount++] = haloIndex(lx, ly, lz);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Remember that blocks may have changed without notice, such as by other
+     * plugins. The whole section is read again on next access.
+     */
+    void markStale() {
+        if (fullReload) {
+            return;
+        }
+        invalidateComponents();
+        needsRelabel = true;
+        fullReload = true;
+    }
+    
+    /**
+     * Bring labels up to date with pending block changes
+     */
+    void refresh(BlockView view, int floorY) {
+        if (!needsRelabel) {
+            return;
+        }
+        if (fullReload) {
+            load(view, floorY);
+            return;
+        }
+        
+        int baseX = (sectionX << 4) - 1;
+        int baseY = (sectionY << 4) - 1;
+        int baseZ = (sectionZ << 4) - 1;
+        // Copy-on-write: components linked earlier may still be reading the old kinds
+        byte[] newKinds = kinds.clone();
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyCells[i];
+            int hx = index % HALO_SIZE;
+            int hz = (index / HALO_SIZE) % HALO_SIZE;
+            int hy = index / (HALO_SIZE * HALO_SIZE);
+            newKinds[index] = view.getKind(baseX + hx, baseY + hy, baseZ + hz);
+        }
+        kinds = newKinds;
+        dirtyCount = 0;
+        relabel(floorY);
+    }
+    
+    /**
+     * Rough number of bytes held by the section, for the cache budget
+     */
+    long estimateBytes() {
+        long bytes = 128 + kinds.length + dirtyCells.length * 4L;
+        if (labels != null) {
+            bytes += labels.length * 2L
+                    + (anchorCounts.length + blockCounts.length + boundaryStart.length + boundaryCells.length) * 4L
+                    + components.length * 8L;
+        }
+        return bytes;
+    }
+    
+    int getLabel(int cell) {
+        return labels == null ? 0 : labels[cell];
+    }
+    
+    void invalidateComponents() {
+        generation++;
+    }
+    
+    private void relabel(int floorY) {
+        invalidateComponents();
+        needsRelabel = false;
+        
+        if (!hasNodes()) {
+            clearLabels();
+            return;
+        }
+        
+        // Copy-on-write: components linked earlier may still be reading the old labels
+        short[] newLabels = new short[CELLS];
+        
+        int[] stack = new int[CELLS];
+        int[] anchors = new int[16];
+        int[] blocks = new int[16];
+        int[] boundaryCounts = new int[16];
+        int boundaryTotal = 0;
+        int label = 0;
+        int baseY = sectionY << 4;
+        
+        for (int start = 0; start < CELLS; start++) {
+            if (newLabels[start] != 0 || !isNode(kinds[haloIndex(start & 15, start >> 8, (start >> 4) & 15)])) {
+                continue;
+            }
+            
+            label++;
+            if (label == anchors.length) {
+                anchors = Arrays.copyOf(anchors, label * 2);
+                blocks = Arrays.copyOf(blocks, label * 2);
+                boundaryCounts = Arrays.copyOf(boundaryCounts, label * 2);
+            }
+            
+            int top = 0;
+            stack[top++] = start;
+            newLabels[start] = (short) label;
+            
+            while (top > 0) {
+                int cell = stack[--top];
+                int lx = cell & 15;
+                int lz = (cell >> 4) & 15;
+                int ly = cell >> 8;
+                byte kind = kinds[haloIndex(lx, ly, lz)];
+                
+                if (kind == BlockView.SUPPORT || baseY + ly <= floorY) {
+                    anchors[label]++;
+                }
+                if (kind == BlockView.PHYSICS) {
+                    blocks[label]++;
+                }
+                if (lx == 0 || lx == 15 || ly == 0 || ly == 15 || lz == 0 || lz == 15) {
+                    boundaryCounts[label]++;
+                    boundaryTotal++;
+                }
+                
+                for (int d = 0; d < DX.length; d++) {
+                    int nx = lx + DX[d];
+                    int ny = ly + DY[d];
+                    int nz = lz + DZ[d];
+                    if (nx < 0 || nx > 15 || ny < 0 || ny > 15 || nz < 0 || nz > 15) {
+                        continue;
+                    }
+                    int neighbour = cellIndex(nx, ny, nz);
+                    if (newLabels[neighbour] == 0 && isNode(kinds[haloIndex(nx, ny, nz)])) {
+                        newLabels[neighbour] = (short) label;
+                        stack[top++] = neighbour;
+                    }
+                }
+            }
+        }
+        
+        labelCount = label;
+        labels = newLabels;
+        anchorCounts = Arrays.copyOf(anchors, label + 1);
+        blockCounts = Arrays.copyOf(blocks, label + 1);
+        
+        // Group boundary cells by label so components can follow one label across sections
+        boundaryStart = new int[label + 2];
+        for (int l = 1; l <= label; l++) {
+            boundaryStart[l + 1] = boundaryStart[l] + boundaryCounts[l];
+        }
+        boundaryCells = new int[boundaryTotal];
+        int[] fill = Arrays.copyOf(boundaryStart, label + 1);
+        for (int cell = 0; cell < CELLS; cell++) {
+            int l = newLabels[cell];
+            if (l == 0) {
+                continue;
+            }
+            int lx = cell & 15;
+            int lz = (cell >> 4) & 15;
+            int ly = cell >> 8;
+            if (lx == 0 || lx == 15 || ly == 0 || ly == 15 || lz == 0 || lz == 15) {
+                boundaryCells[fill[l]++] = cell;
+            }
+        }
+        
+        components = new SupportComponent[label + 1];
+    }
+    
+    private boolean hasNodes() {
+        for (int ly = 0; ly < SIZE; ly++) {
+            for (int lz = 0; lz < SIZE; lz++) {
+                int index = haloIndex(0, ly, lz);
+                for (int lx = 0; lx < SIZE; lx++) {
+                    if (isNode(kinds[index + lx])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    private void clearLabels() {
+        labelCount = 0;
+        labels = null;
+        anchorCounts = null;
+        blockCounts = null;
+        boundaryStart = null;
+        boundaryCells = null;
+        components = null;
+    }
+}
\ No newline at end of file
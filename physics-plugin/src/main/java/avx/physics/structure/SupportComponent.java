@@ -0,0 +1,160 @@
+package avx.physics.structure;
+
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongHashSet;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A connected group of physics and support blocks, possibly spanning
+ * several sections of a {@link ConnectivityIndex}, as far as it reaches
+ * within the search box of the query it was linked for.
+ *
+ * A component stays valid until the generation of one of its sections
+ * changes; after that the index resolves a fresh one on the next lookup.
+ * It keeps the label and kind arrays it was linked from, so its blocks can
+ * still be visited after the sections are relabelled, without holding the
+ * lock of the index.
+ */
+public final class SupportComponent {
+    
+    private StructureSection[] memberSections = new StructureSection[4];
+    private int[] memberLabels = new int[4];
+    private int[] memberGenerations = new int[4];
+    private short[][] memberLabelArrays = new short[4][];
+    private byte[][] memberKindArrays = new byte[4][];
+    private int memberCount;
+    
+    private int anchors;
+    private int outside;
+    private int blockCount;
+    private boolean supported;
+    
+    /** Search box in section coordinates: min x, y, z then max x, y, z */
+    final int[] box;
+    
+    /** Component of the same start label for another search box, kept by the index */
+    SupportComponent next;
+    
+    /** Keys of unindexed sections inside the search box this component reaches into */
+    final LongHashSet frontierSections = new LongHashSet();
+    
+    SupportComponent(int[] box) {
+        this.box = box;
+    }
+    
+    void addMember(StructureSection section, int label) {
+        if (memberCount == memberSections.length) {
+            memberSections = Arrays.copyOf(memberSections, memberCount * 2);
+            memberLabels = Arrays.copyOf(memberLabels, memberCount * 2);
+            memberGenerations = Arrays.copyOf(memberGenerations, memberCount * 2);
+            memberLabelArrays = Arrays.copyOf(memberLabelArrays, memberCount * 2);
+            memberKindArrays = Arrays.copyOf(memberKindArrays, memberCount * 2);
+        }
+        memberSections[memberCount] = section;
+        memberLabels[memberCount] = label;
+        memberGenerations[memberCount] = section.generation;
+        memberLabelArrays[memberCount] = section.labels;
+        memberKindArrays[memberCount] = section.kinds;
+        memberCount++;
+        anchors += section.anchorCounts[label];
+        blockCount += section.blockCounts[label];
+    }
+    
+    /**
+     * Record a contact with a block in a section of the search box that is not indexed yet
+     */
+    void addFrontier(long sectionKey) {
+        frontierSections.add(sectionKey);
+    }
+    
+    /**
+     * Record a contact assumed to be anchored: a block below the search box, or
+     * a position in an unloaded chunk
+     */
+    void addOutside() {
+        outside++;
+    }
+    
+    void complete(int minSupport) {
+        // A component that continues down past the search box or into an unloaded chunk is given
+        // the benefit of the doubt, unread sections inside the box are not
+        this.supported = anchors >= minSupport || outside > 0;
+    }
+    
+    /**
+     * Check that no member section changed since the component was linked
+     */
+    boolean isValid() {
+        for (int m = 0; m < memberCount; m++) {
+            if (memberSections[m].generation != memberGenerations[m]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Check if the component is anchored to enough support blocks or the world floor
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+    
+    /**
+     * Number of anchoring blocks (support blocks and blocks on the world floor) in the component
+     */
+    public int getAnchorCount() {
+        return anchors;
+    }
+    
+    /**
+     * Number of contacts with blocks below the search box or with unloaded
+     * chunks, which are assumed to be anchored
+     */
+    public int getOutsideCount() {
+        return outside;
+    }
+    
+    /**
+     * Number of physics blocks in the component
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+    
+    int getSectionCount() {
+        return memberCount;
+    }
+    
+    /**
+     * Visit the packed key of every physics block of the component.
+     * Support blocks are skipped as they never fall.
+     */
+    public void forEachPhysicsBlock(LongConsumer consumer) {
+        for (int m = 0; m < memberCount; m++) {
+            StructureSection section = memberSections[m];
+            short label = (short) memberLabels[m];
+            short[] labels = memberLabelArrays[m];
+            byte[] kinds = memberKindArrays[m];
+            if (labels == null) {
+                continue;
+            }
+            int baseX = section.sectionX << 4;
+            int baseY = section.sectionY << 4;
+            int baseZ = section.sectionZ << 4;
+            for (int cell = 0; cell < StructureSection.CELLS; cell++) {
+                if (labels[cell] != label) {
+                    continue;
+                }
+                int lx = cell & 15;
+                int lz = (cell >> 4) & 15;
+                int ly = cell >> 8;
+                if (kinds[StructureSection.haloIndex(lx, ly, lz)] == BlockView.PHYSICS) {
+                    consumer.accept(BlockKey.pack(baseX + lx, baseY + ly, baseZ + lz));
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package avx.physics.structure;
+
+import org.bukkit.HeightMap;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.Set;
+
+/**
+ * Block view backed by a live world. Must only be used on the main thread.
+ */
+public class WorldBlockView implements BlockView {
+    
+    private final World world;
+    private final Set<Material> physicsBlocks;
+    private final Set<Material> supportBlocks;
+    
+    public WorldBlockView(World world, Set<Material> physicsBlocks, Set<Material> supportBlocks) {
+        this.world = world;
+        this.physicsBlocks = physicsBlocks;
+        this.supportBlocks = supportBlocks;
+    }
+    
+    @Override
+    public byte getKind(int x, int y, int z) {
+        if (y < world.getMinHeight() || y >= world.getMaxHeight()) {
+            return NONE;
+        }
+        
+        // Never load chunks just to classify a block
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            return UNLOADED;
+        }
+        
+        Material type = world.getType(x, y, z);
+        if (supportBlocks.contains(type)) {
+            return SUPPORT;
+        }
+        return physicsBlocks.contains(type) ? PHYSICS : NONE;
+    }
+    
+    @Override
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return world.isChunkLoaded(chunkX, chunkZ);
+    }
+    
+    @Override
+    public int getHighestBlockY(int x, int z) {
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            return world.getMaxHeight() - 1;
+        }
+        // Heightmap of the highest non-air block, unlike the default one it includes passable blocks
+        return world.getHighestBlockYAt(x, z, HeightMap.WORLD_SURFACE);
+    }
+    
+    @Override
+    public int getMinHeight() {
+        return world.getMinHeight();
+    }
+    
+    @Override
+    public int getMaxHeight() {
+        return world.getMaxHeight();
+    }
+    
+    public World getWorld() {
+        return world;
+    }
+}
\ No newline at end of file
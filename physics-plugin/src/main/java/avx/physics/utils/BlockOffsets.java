@@ -0,0 +1,172 @@
+package avx.physics.utils;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed block offsets around an origin, nearest first.
+ *
+ * Replaces nested coordinate loops over a cube that take a square root per
+ * position: distances are computed once, and a sphere never visits the
+ * positions past its radius, almost half of the cube. Offsets are sorted by
+ * distance, so every smaller sphere is a prefix of one shared table. Tables
+ * are built once per radius, immutable and safe to share between threads.
+ */
+public final class BlockOffsets {
+    
+    private static final int INITIAL_SPHERE_RADIUS = 16;
+    
+    // Spheres share the largest table built so far, read spheres before table
+    private static volatile BlockOffsets[] spheres = new BlockOffsets[INITIAL_SPHERE_RADIUS + 1];
+    private static volatile Table sphereTable = new Table(INITIAL_SPHERE_RADIUS, true);
+    private static volatile BlockOffsets[] cubes = new BlockOffsets[0];
+    
+    private final Table table;
+    private final int size;
+    
+    private BlockOffsets(Table table, int size) {
+        this.table = table;
+        this.size = size;
+    }
+    
+    /**
+     * Get the offsets of every position within the given Euclidean radius,
+     * excluding the origin, ordered by distance
+     */
+    public static BlockOffsets sphere(int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative: " + radius);
+        }
+        BlockOffsets[] views = spheres;
+        if (radius >= views.length) {
+            views = growSpheres(radius);
+        }
+        
+        // Racy but idempotent: two threads may both build the same view
+        BlockOffsets offsets = views[radius];
+        if (offsets == null) {
+            Table table = sphereTable;
+            offsets = new BlockOffsets(table, table.countWithin[radius]);
+            views[radius] = offsets;
+        }
+        return offsets;
+    }
+    
+    /**
+     * Get the offsets of every position of the cube with the given half
+     * width, excluding the origin, ordered by distance
+     */
+    public static BlockOffsets cube(int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative: " + radius);
+        }
+        BlockOffsets[] views = cubes;
+        if (radius < views.length && views[radius] != null) {
+            return views[radius];
+        }
+        return buildCube(radius);
+    }
+    
+    private static synchronized BlockOffsets[] growSpheres(int radius) {
+        if (radius >= spheres.length) {
+            // A larger table serves every smaller radius too, so the old one is dropped
+            sphereTable = new Table(radius, true);
+            spheres = new BlockOffsets[radius + 1];
+        }
+        return spheres;
+    }
+    
+    private static synchronized BlockOffsets buildCube(int radius) {
+        BlockOffsets[] views = cubes;
+        if (radius < views.length && views[radius] != null) {
+            return views[radius];
+        }
+        Table table = new Table(radius, false);
+        BlockOffsets offsets = new BlockOffsets(table, table.offsetX.length);
+        views = Arrays.copyOf(views, Math.max(views.length, radius + 1));
+        views[radius] = offsets;
+        cubes = views;
+        return offsets;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int getX(int index) {
+        return table.offsetX[index];
+    }
+    
+    public int getY(int index) {
+        return table.offsetY[index];
+    }
+    
+    public int getZ(int index) {
+        return table.offsetZ[index];
+    }
+    
+    /**
+     * Euclidean distance of an offset from the origin
+     */
+    public double getDistance(int index) {
+        return table.distance[index];
+    }
+    
+    /**
+     * Every offset within a radius or cube, sorted by distance
+     */
+    private static final class Table {
+        
+        final short[] offsetX;
+        final short[] offsetY;
+        final short[] offsetZ;
+        final float[] distance;
+        
+        /** Per radius up to the table's: number of leading offsets within it, spheres only */
+        final int[] countWithin;
+        
+        Table(int radius, boolean sphere) {
+            int radiusSquared = radius * radius;
+            
+            // Squared distance in the high bits, so sorting orders by distance
+            // and then keeps chunk storage order (y, then z, then x)
+            int side = radius * 2 + 1;
+            long[] order = new long[side * side * side];
+            int count = 0;
+            for (int y = -radius; y <= radius; y++) {
+                for (int z = -radius; z <= radius; z++) {
+                    for (int x = -radius; x <= radius; x++) {
+                        int squared = x * x + y * y + z * z;
+                        if (squared == 0 || sphere && squared > radiusSquared) {
+                            continue;
+                        }
+                        int cube = ((y + radius) * side + (z + radius)) * side + (x + radius);
+                        order[count++] = (long) squared << 32 | cube;
+                    }
+                }
+            }
+            Arrays.sort(order, 0, count);
+            
+            this.offsetX = new short[count];
+            this.offsetY = new short[count];
+            this.offsetZ = new short[count];
+            this.distance = new float[count];
+            this.countWithin = sphere ? new int[radius + 1] : null;
+            int within = 0;
+            for (int i = 0; i < count; i++) {
+                int cube = (int) order[i];
+                int squared = (int) (order[i] >>> 32);
+                offsetX[i] = (short) (cube % side - radius);
+                offsetZ[i] = (short) (cube / side % side - radius);
+                offsetY[i] = (short) (cube / (side * side) - radius);
+                distance[i] = (float) Math.sqrt(squared);
+                // Offsets up to here are all within the radii smaller than this distance
+                while (sphere && within * within < squared) {
+                    countWithin[within++] = i;
+                }
+            }
+            while (sphere && within <= radius) {
+                countWithin[within++] = count;
+            }
+        }
+    }
+}
@@ -2,16 +2,18 @@ package avx.physics.utils;
 
 import avx.physics.PhysicsPlugin;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Loads the plugin configuration. Every getter reads from an immutable
+ * {@link ConfigSnapshot} that is rebuilt on load, so hot paths never touch YAML.
+ */
 public class ConfigManager {
     
     private final PhysicsPlugin plugin;
-    private FileConfiguration config;
+    private volatile ConfigSnapshot snapshot;
     
     public ConfigManager(PhysicsPlugin plugin) {
         this.plugin = plugin;
@@ -20,150 +22,166 @@ public class ConfigManager {
     public void loadConfig() {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
-        this.config = plugin.getConfig();
+        this.snapshot = new ConfigSnapshot(plugin.getConfig(), plugin.getLogger());
+    }
+    
+    /**
+     * Get the current settings. The snapshot never changes, hold on to it to
+     * read consistent values across a whole operation.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
     }
     
     // Main settings
     public boolean isEnabled() {
-        return config.getBoolean("enabled", true);
+        return snapshot.isEnabled();
     }
     
     // Physics settings
     public int getMaxSupportDistance() {
-        return config.getInt("physics.max-support-distance", 10);
+        return snapshot.getMaxSupportDistance();
     }
     
     public int getMinSupportBlocks() {
-        return config.getInt("physics.min-support-blocks", 2);
+        return snapshot.getMinSupportBlocks();
     }
     
     public int getCheckInterval() {
-        return config.getInt("physics.check-interval", 10);
+        return snapshot.getCheckInterval();
     }
     
     public int getMaxBlocksPerTick() {
-        return config.getInt("physics.max-blocks-per-tick", 50);
+        return snapshot.getMaxBlocksPerTick();
     }
     
     public boolean isChainReactionsEnabled() {
-        return config.getBoolean("physics.chain-reactions", true);
+        return snapshot.isChainReactionsEnabled();
     }
     
     public int getMaxChainDistance() {
-        return config.getInt("physics.max-chain-distance", 15);
+        return snapshot.getMaxChainDistance();
     }
     
     // Gravity settings
     public double getDefaultGravityStrength() {
-        return config.getDouble("gravity.default-strength", 1.0);
+        return snapshot.getDefaultGravityStrength();
     }
     
     public boolean isMomentumEnabled() {
-        return config.getBoolean("gravity.momentum", true);
+        return snapshot.isMomentumEnabled();
     }
     
     public double getBounceFactor() {
-        return config.getDouble("gravity.bounce-factor", 0.3);
+        return snapshot.getBounceFactor();
     }
     
     public double getAirResistance() {
-        return config.getDouble("gravity.air-resistance", 0.02);
+        return snapshot.getAirResistance();
     }
     
     // Block settings
     public Set<Material> getPhysicsBlocks() {
-        List<String> materialNames = config.getStringList("physics-blocks");
-        return materialNames.stream()
-                .map(name -> {
-                    try {
-                        return Material.valueOf(name.toUpperCase());
-                    } catch (IllegalArgumentException e) {
-                        plugin.getLogger().warning("Invalid material in physics-blocks: " + name);
-                        return null;
-                    }
-                })
-                .filter(material -> material != null)
-                .collect(Collectors.toSet());
+        return snapshot.getPhysicsBlocks();
     }
     
     public Set<Material> getSupportBlocks() {
-        List<String> materialNames = config.getStringList("support-blocks");
-        return materialNames.stream()
-                .map(name -> {
-                    try {
-                        return Material.valueOf(name.toUpperCase());
-                    } catch (IllegalArgumentException e) {
-                        plugin.getLogger().warning("Invalid material in support-blocks: " + name);
-                        return null;
-                    }
-                })
-                .filter(material -> material != null)
-                .collect(Collectors.toSet());
+        return snapshot.getSupportBlocks();
+    }
+    
+    public boolean isPhysicsBlock(Material material) {
+        return snapshot.isPhysicsBlock(material);
+    }
+    
+    public boolean isSupportBlock(Material material) {
+        return snapshot.isSupportBlock(material);
     }
     
     // Performance settings
     public int getMaxChunks() {
-        return config.getInt("performance.max-chunks", 5);
+        return snapshot.getMaxChunks();
     }
     
     public double getMinTPS() {
-        return config.getDouble("performance.min-tps", 15.0);
+        return snapshot.getMinTPS();
+    }
+    
+    public double getTargetMspt() {
+        return snapshot.getTargetMspt();
+    }
+    
+    public double getMaxTickBudgetMs() {
+        return snapshot.getMaxTickBudgetMs();
+    }
+    
+    public double getMinTickBudgetMs() {
+        return snapshot.getMinTickBudgetMs();
+    }
+    
+    public int getCacheSizeMb() {
+        return snapshot.getCacheSizeMb();
+    }
+    
+    public int getCacheExpiration() {
+        return snapshot.getCacheExpiration();
     }
     
     public boolean isAsyncProcessingEnabled() {
-        return config.getBoolean("performance.async-processing", false);
+        return snapshot.isAsyncProcessingEnabled();
+    }
+    
+    public int getMaxFallingEntities() {
+        return snapshot.getMaxFallingEntities();
+    }
+    
+    public int getMaxFallingEntitiesPerChunk() {
+        return snapshot.getMaxFallingEntitiesPerChunk();
     }
     
     // Effects settings
     public boolean isFallingParticlesEnabled() {
-        return config.getBoolean("effects.falling-particles", true);
+        return snapshot.isFallingParticlesEnabled();
     }
     
     public boolean isImpactParticlesEnabled() {
-        return config.getBoolean("effects.impact-particles", true);
+        return snapshot.isImpactParticlesEnabled();
     }
     
     public boolean isSoundsEnabled() {
-        return config.getBoolean("effects.sounds", true);
+        return snapshot.isSoundsEnabled();
     }
     
     public float getSoundVolume() {
-        return (float) config.getDouble("effects.sound-volume", 0.5);
+        return snapshot.getSoundVolume();
+    }
+    
+    public int getMaxEffectBurstsPerTick() {
+        return snapshot.getMaxEffectBurstsPerTick();
     }
     
     // World settings
     public List<String> getEnabledWorlds() {
-        return config.getStringList("worlds.enabled-worlds");
+        return snapshot.getEnabledWorlds();
     }
     
     public List<String> getDisabledWorlds() {
-        return config.getStringList("worlds.disabled-worlds");
+        return snapshot.getDisabledWorlds();
     }
     
     public boolean isWorldEnabled(String worldName) {
-        List<String> enabledWorlds = getEnabledWorlds();
-        List<String> disabledWorlds = getDisabledWorlds();
-        
-        // If disabled worlds contains this world, it's disabled
-        if (disabledWorlds.contains(worldName)) {
-            return false;
-        }
-        
-        // If enabled worlds is empty, all worlds are enabled (except disabled ones)
-        // If enabled worlds is not empty, only those worlds are enabled
-        return enabledWorlds.isEmpty() || enabledWorlds.contains(worldName);
+        return snapshot.isWorldEnabled(worldName);
     }
     
     // Debug settings
     public boolean isDebugEnabled() {
-        return config.getBoolean("debug.enabled", false);
+        return snapshot.isDebugEnabled();
     }
     
     public boolean isShowSupportLinesEnabled() {
-        return config.getBoolean("debug.show-support-lines", false);
+        return snapshot.isShowSupportLinesEnabled();
     }
     
     public boolean isLogCalculationsEnabled() {
-        return config.getBoolean("debug.log-calculations", false);
+        return snapshot.isLogCalculationsEnabled();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
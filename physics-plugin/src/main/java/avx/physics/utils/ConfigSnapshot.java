@@ -0,0 +1,274 @@
+package avx.physics.utils;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Immutable view of the plugin configuration, resolved once per load.
+ *
+ * Material lists are parsed into {@link EnumSet}s so membership tests are a
+ * bit lookup. Instances are safe to share with worker threads.
+ */
+public final class ConfigSnapshot {
+    
+    private final boolean enabled;
+    
+    // Physics settings
+    private final int maxSupportDistance;
+    private final int minSupportBlocks;
+    private final int checkInterval;
+    private final int maxBlocksPerTick;
+    private final boolean chainReactions;
+    private final int maxChainDistance;
+    
+    // Gravity settings
+    private final double defaultGravityStrength;
+    private final boolean momentum;
+    private final double bounceFactor;
+    private final double airResistance;
+    
+    // Block settings
+    private final Set<Material> physicsBlocks;
+    private final Set<Material> supportBlocks;
+    
+    // Performance settings
+    private final int maxChunks;
+    private final double minTPS;
+    private final double targetMspt;
+    private final double maxTickBudgetMs;
+    private final double minTickBudgetMs;
+    private final int cacheSizeMb;
+    private final int cacheExpiration;
+    private final boolean asyncProcessing;
+    private final int maxFallingEntities;
+    private final int maxFallingEntitiesPerChunk;
+    
+    // Effects settings
+    private final boolean fallingParticles;
+    private final boolean impactParticles;
+    private final boolean sounds;
+    private final float soundVolume;
+    private final int maxEffectBurstsPerTick;
+    
+    // World settings
+    private final List<String> enabledWorlds;
+    private final List<String> disabledWorlds;
+    private final Set<String> enabledWorldSet;
+    private final Set<String> disabledWorldSet;
+    
+    // Debug settings
+    private final boolean debug;
+    private final boolean showSupportLines;
+    private final boolean logCalculations;
+    
+    public ConfigSnapshot(FileConfiguration config, Logger logger) {
+        this.enabled = config.getBoolean("enabled", true);
+        
+        this.maxSupportDistance = config.getInt("physics.max-support-distance", 10);
+        this.minSupportBlocks = config.getInt("physics.min-support-blocks", 2);
+        this.checkInterval = config.getInt("physics.check-interval", 10);
+        this.maxBlocksPerTick = config.getInt("physics.max-blocks-per-tick", 50);
+        this.chainReactions = config.getBoolean("physics.chain-reactions", true);
+        this.maxChainDistance = config.getInt("physics.max-chain-distance", 15);
+        
+        this.defaultGravityStrength = config.getDouble("gravity.default-strength", 1.0);
+        this.momentum = config.getBoolean("gravity.momentum", true);
+        this.bounceFactor = config.getDouble("gravity.bounce-factor", 0.3);
+        this.airResistance = config.getDouble("gravity.air-resistance", 0.02);
+        
+        this.physicsBlocks = parseMaterials(config.getStringList("physics-blocks"), "physics-blocks", logger);
+        this.supportBlocks = parseMaterials(config.getStringList("support-blocks"), "support-blocks", logger);
+        
+        this.maxChunks = config.getInt("performance.max-chunks", 5);
+        this.minTPS = config.getDouble("performance.min-tps", 15.0);
+        this.targetMspt = config.getDouble("performance.target-mspt", 40.0);
+        this.maxTickBudgetMs = config.getDouble("performance.max-tick-budget-ms", 10.0);
+        this.minTickBudgetMs = config.getDouble("performance.min-tick-budget-ms", 1.0);
+        this.cacheSizeMb = config.getInt("performance.cache-size-mb", 16);
+        this.cacheExpiration = config.getInt("performance.cache-expiration", 30);
+        this.asyncProcessing = config.getBoolean("performance.async-processing", false);
+        this.maxFallingEntities = config.getInt("performance.max-falling-entities", 400);
+        this.maxFallingEntitiesPerChunk = config.getInt("performance.max-falling-entities-per-chunk", 64);
+        
+        this.fallingParticles = config.getBoolean("effects.falling-particles", true);
+        this.impactParticles = config.getBoolean("effects.impact-particles", true);
+        this.sounds = config.getBoolean("effects.sounds", true);
+        this.soundVolume = (float) config.getDouble("effects.sound-volume", 0.5);
+        this.maxEffectBurstsPerTick = config.getInt("effects.max-bursts-per-tick", 32);
+        
+        this.enabledWorlds = Collections.unmodifiableList(new ArrayList<>(config.getStringList("worlds.enabled-worlds")));
+        this.disabledWorlds = Collections.unmodifiableList(new ArrayList<>(config.getStringList("worlds.disabled-worlds")));
+        this.enabledWorldSet = Collections.unmodifiableSet(new HashSet<>(enabledWorlds));
+        this.disabledWorldSet = Collections.unmodifiableSet(new HashSet<>(disabledWorlds));
+        
+        this.debug = config.getBoolean("debug.enabled", false);
+        this.showSupportLines = config.getBoolean("debug.show-support-lines", false);
+        this.logCalculations = config.getBoolean("debug.log-calculations", false);
+    }
+    
+    private static Set<Material> parseMaterials(List<String> materialNames, String path, Logger logger) {
+        EnumSet<Material> materials = EnumSet.noneOf(Material.class);
+        for (String name : materialNames) {
+            try {
+                materials.add(Material.valueOf(name.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid material in " + path + ": " + name);
+            }
+        }
+        return Collections.unmodifiableSet(materials);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public int getMaxSupportDistance() {
+        return maxSupportDistance;
+    }
+    
+    public int getMinSupportBlocks() {
+        return minSupportBlocks;
+    }
+    
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+    
+    public int getMaxBlocksPerTick() {
+        return maxBlocksPerTick;
+    }
+    
+    public boolean isChainReactionsEnabled() {
+        return chainReactions;
+    }
+    
+    public int getMaxChainDistance() {
+        return maxChainDistance;
+    }
+    
+    public double getDefaultGravityStrength() {
+        return defaultGravityStrength;
+    }
+    
+    public boolean isMomentumEnabled() {
+        return momentum;
+    }
+    
+    public double getBounceFactor() {
+        return bounceFactor;
+    }
+    
+    public double getAirResistance() {
+        return airResistance;
+    }
+    
+    public Set<Material> getPhysicsBlocks() {
+        return physicsBlocks;
+    }
+    
+    public Set<Material> getSupportBlocks() {
+        return supportBlocks;
+    }
+    
+    public boolean isPhysicsBlock(Material material) {
+        return physicsBlocks.contains(material);
+    }
+    
+    public boolean isSupportBlock(Material material) {
+        return supportBlocks.contains(material);
+    }
+    
+    public int getMaxChunks() {
+        return maxChunks;
+    }
+    
+    public double getMinTPS() {
+        return minTPS;
+    }
+    
+    public double getTargetMspt() {
+        return targetMspt;
+    }
+    
+    public double getMaxTickBudgetMs() {
+        return maxTickBudgetMs;
+    }
+    
+    public double getMinTickBudgetMs() {
+        return minTickBudgetMs;
+    }
+    
+    public int getCacheSizeMb() {
+        return cacheSizeMb;
+    }
+    
+    public int getCacheExpiration() {
+        return cacheExpiration;
+    }
+    
+    public boolean isAsyncProcessingEnabled() {
+        return asyncProcessing;
+    }
+    
+    public int getMaxFallingEntities() {
+        return maxFallingEntities;
+    }
+    
+    public int getMaxFallingEntitiesPerChunk() {
+        return maxFallingEntitiesPerChunk;
+    }
+    
+    public boolean isFallingParticlesEnabled() {
+        return fallingParticles;
+    }
+    
+    public boolean isImpactParticlesEnabled() {
+        return impactParticles;
+    }
+    
+    public boolean isSoundsEnabled() {
+        return sounds;
+    }
+    
+    public float getSoundVolume() {
+        return soundVolume;
+    }
+    
+    public int getMaxEffectBurstsPerTick() {
+        return maxEffectBurstsPerTick;
+    }
+    
+    public List<String> getEnabledWorlds() {
+        return enabledWorlds;
+    }
+    
+    public List<String> getDisabledWorlds() {
+        return disabledWorlds;
+    }
+    
+    public boolean isWorldEnabled(String worldName) {
+        // If disabled worlds contains this world, it's disabled
+        if (disabledWorldSet.contains(worldName)) {
+            return false;
+        }
+        
+        // If enabled worlds is empty, all worlds are enabled (except disabled ones)
+        // If enabled worlds is not empty, only those worlds are enabled
+        return enabledWorldSet.isEmpty() || enabledWorldSet.contains(worldName);
+    }
+    
+    public boolean isDebugEnabled() {
+        return debug;
+    }
+    
+    public boolean isShowSupportLinesEnabled() {
+        return showSupportLines;
+    }
+    
+    public boolean isLogCalculationsEnabled() {
+        return logCalculations;
+    }
+}
\ No newline at end of file
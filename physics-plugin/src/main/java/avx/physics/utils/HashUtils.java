@@ -0,0 +1,21 @@
+package avx.physics.utils;
+
+/**
+ * Hashing helpers shared by the primitive collections
+ */
+final class HashUtils {
+    
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    
+    private HashUtils() {
+    }
+    
+    /**
+     * Spread the bits of a packed key so that neighbouring blocks land in distant slots
+     */
+    static int mix(long key) {
+        long h = key * GOLDEN_RATIO;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package avx.physics.utils;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Growable FIFO ring buffer of primitive longs. Not thread-safe.
+ */
+public class LongArrayQueue {
+    
+    private long[] elements;
+    private int head;
+    private int tail;
+    private int size;
+    
+    public LongArrayQueue() {
+        this(16);
+    }
+    
+    public LongArrayQueue(int initialCapacity) {
+        this.elements = new long[Math.max(4, Integer.highestOneBit(Math.max(1, initialCapacity) - 1) << 1)];
+    }
+    
+    public void offer(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[tail] = value;
+        tail = (tail + 1) & (elements.length - 1);
+        size++;
+    }
+    
+    public long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        head = 0;
+        tail = 0;
+        size = 0;
+    }
+    
+    private void grow() {
+        long[] grown = new long[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+        tail = size;
+    }
+}
\ No newline at end of file
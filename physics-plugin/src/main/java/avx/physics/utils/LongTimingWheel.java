@@ -0,0 +1,122 @@
+package avx.physics.utils;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timing wheel of primitive long keys, bucketed by due tick.
+ *
+ * A key scheduled for tick t goes to slot t % slots together with its due
+ * tick; keys due more than one revolution ahead simply stay in their slot
+ * until their tick comes around. Each key is scheduled at most once at a time.
+ * Scheduling and advancing cost O(1) per key, without allocating a task per
+ * key. Not thread-safe.
+ */
+public class LongTimingWheel {
+    
+    private static final int DEFAULT_SLOTS = 64;
+    
+    private final LongArrayQueue[] keys;
+    private final LongArrayQueue[] dueTicks;
+    private final int mask;
+    private final LongHashSet scheduled;
+    private long currentTick;
+    
+    public LongTimingWheel(long currentTick) {
+        this(DEFAULT_SLOTS, currentTick);
+    }
+    
+    public LongTimingWheel(int slots, long currentTick) {
+        int size = Integer.highestOneBit(Math.max(2, slots) - 1) << 1;
+        this.keys = new LongArrayQueue[size];
+        this.dueTicks = new LongArrayQueue[size];
+        this.mask = size - 1;
+        this.scheduled = new LongHashSet();
+        this.currentTick = currentTick;
+    }
+    
+    /**
+     * Schedule a key to become due after the given number of ticks
+     *
+     * @return false if the key was already scheduled
+     */
+    public boolean schedule(long key, int delayTicks) {
+        if (!scheduled.add(key)) {
+            return false;
+        }
+        
+        long due = currentTick + Math.max(1, delayTicks);
+        int slot = (int) (due & mask);
+        if (keys[slot] == null) {
+            keys[slot] = new LongArrayQueue();
+            dueTicks[slot] = new LongArrayQueue();
+        }
+        keys[slot].offer(key);
+        dueTicks[slot].offer(due);
+        return true;
+    }
+    
+    /**
+     * Advance the wheel to the given tick, passing every key that became due to the consumer
+     *
+     * @return number of keys that became due
+     */
+    public int advance(long tick, LongConsumer consumer) {
+        if (tick <= currentTick) {
+            return 0;
+        }
+        
+        // After a long gap every slot is visited once instead of once per elapsed tick
+        long from = currentTick + 1;
+        if (tick - currentTick > mask) {
+            from = tick - mask;
+        }
+        currentTick = tick;
+        
+        int expired = 0;
+        for (long t = from; t <= tick; t++) {
+            int slot = (int) (t & mask);
+            LongArrayQueue slotKeys = keys[slot];
+            if (slotKeys == null || slotKeys.isEmpty()) {
+                continue;
+            }
+            
+            LongArrayQueue slotDue = dueTicks[slot];
+            for (int i = slotKeys.size(); i > 0; i--) {
+                long key = slotKeys.poll();
+                long due = slotDue.poll();
+                if (due <= tick) {
+                    scheduled.remove(key);
+                    consumer.accept(key);
+                    expired++;
+                } else {
+                    // Due in a later revolution
+                    slotKeys.offer(key);
+                    slotDue.offer(due);
+                }
+            }
+        }
+        return expired;
+    }
+    
+    public long getCurrentTick() {
+        return currentTick;
+    }
+    
+    public int size() {
+        return scheduled.size();
+    }
+    
+    public boolean isEmpty() {
+        return scheduled.isEmpty();
+    }
+    
+    public void clear() {
+        for (int slot = 0; slot <= mask; slot++) {
+            if (keys[slot] != null) {
+                keys[slot].clear();
+                dueTicks[slot].clear();
+            }
+        }
+        scheduled.clear();
+    }
+}
\ No newline at end of file
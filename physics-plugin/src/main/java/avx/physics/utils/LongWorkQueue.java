@@ -0,0 +1,112 @@
+package avx.physics.utils;
+
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO work queue of primitive longs that holds every key at most once.
+ *
+ * Offering a key that is already queued coalesces with the queued entry.
+ * Priority offers are served before normal ones, and promote a key that was
+ * already queued normally. Entries are removed lazily: the backing queues may
+ * hold stale copies, which are skipped on poll. Not thread-safe.
+ */
+public class LongWorkQueue {
+    
+    private final LongHashSet queued = new LongHashSet();
+    private final LongHashSet prioritized = new LongHashSet();
+    private final LongArrayQueue normal = new LongArrayQueue();
+    private final LongArrayQueue priority = new LongArrayQueue();
+    
+    /**
+     * Queue a key behind everything already queued
+     *
+     * @return false if the key was already queued and coalesced
+     */
+    public boolean offer(long key) {
+        if (!queued.add(key)) {
+            return false;
+        }
+        normal.offer(key);
+        return true;
+    }
+    
+    /**
+     * Queue a key ahead of all normal entries, promoting it if it is already queued
+     *
+     * @return false if the key was already queued and coalesced
+     */
+    public boolean offerPriority(long key) {
+        boolean added = queued.add(key);
+        if (prioritized.add(key)) {
+            priority.offer(key);
+        }
+        return added;
+    }
+    
+    /**
+     * Remove and return the next key, priority entries first
+     */
+    public long poll() {
+        while (!priority.isEmpty()) {
+            long key = priority.poll();
+            if (prioritized.remove(key)) {
+                return take(key);
+            }
+        }
+        while (!normal.isEmpty()) {
+            long key = normal.poll();
+            // Skip copies that were promoted or removed since
+            if (queued.contains(key) && !prioritized.contains(key)) {
+                return take(key);
+            }
+        }
+        throw new NoSuchElementException();
+    }
+    
+    public boolean contains(long key) {
+        return queued.contains(key);
+    }
+    
+    /**
+     * Remove a queued key
+     *
+     * @return true if the key was queued
+     */
+    public boolean remove(long key) {
+        if (!queued.remove(key)) {
+            return false;
+        }
+        prioritized.remove(key);
+        compactIfEmpty();
+        return true;
+    }
+    
+    public int size() {
+        return queued.size();
+    }
+    
+    public boolean isEmpty() {
+        return queued.isEmpty();
+    }
+    
+    public void clear() {
+        queued.clear();
+        prioritized.clear();
+        normal.clear();
+        priority.clear();
+    }
+    
+    private long take(long key) {
+        queued.remove(key);
+        compactIfEmpty();
+        return key;
+    }
+    
+    private void compactIfEmpty() {
+        // Drop stale copies once nothing is left to serve
+        if (queued.isEmpty()) {
+            normal.clear();
+            priority.clear();
+        }
+    }
+}
\ No newline at end of file
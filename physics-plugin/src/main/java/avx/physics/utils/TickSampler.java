@@ -0,0 +1,129 @@
+package avx.physics.utils;
+
+import java.util.Arrays;
+
+/**
+ * Rolling tick statistics from nanosecond timestamps.
+ *
+ * {@link #recordTick} is called once per server tick and keeps the last five
+ * minutes of tick start times in a ring buffer, from which TPS is derived for
+ * any window. Tick durations for the last minute are kept in a second buffer
+ * for MSPT percentiles; they are the gaps between ticks unless real busy
+ * times are reported through {@link #recordTickDuration}. Not thread-safe.
+ */
+public class TickSampler {
+    
+    public static final int WINDOW_5S = 100;
+    public static final int WINDOW_1M = 1200;
+    public static final int WINDOW_5M = 6000;
+    
+    private static final double MAX_TPS = 20.0;
+    
+    private final long[] tickStarts = new long[WINDOW_5M];
+    private int tickHead = 0;
+    private int tickCount = 0;
+    
+    private final long[] durations = new long[WINDOW_1M];
+    private int durationHead = 0;
+    private int durationCount = 0;
+    private long durationTotal = 0;
+    private boolean externalDurations = false;
+    
+    // Sorted copy of the durations, rebuilt when a percentile is asked after new samples
+    private long[] sortedDurations = new long[0];
+    private boolean sortedValid = false;
+    
+    /**
+     * Record the start of a tick
+     */
+    public void recordTick(long nanoTime) {
+        if (tickCount > 0 && !externalDurations) {
+            addDuration(nanoTime - tickStarts[(tickHead + WINDOW_5M - 1) % WINDOW_5M]);
+        }
+        tickStarts[tickHead] = nanoTime;
+        tickHead = (tickHead + 1) % WINDOW_5M;
+        tickCount = Math.min(tickCount + 1, WINDOW_5M);
+    }
+    
+    /**
+     * Record the measured busy time of a tick. Once called, tick gaps are no
+     * longer used as durations.
+     */
+    public void recordTickDuration(long nanos) {
+        if (!externalDurations) {
+            externalDurations = true;
+            durationCount = 0;
+            durationHead = 0;
+            durationTotal = 0;
+        }
+        addDuration(nanos);
+    }
+    
+    private void addDuration(long nanos) {
+        if (durationCount == WINDOW_1M) {
+            durationTotal -= durations[durationHead];
+        }
+        durationTotal += nanos;
+        durations[durationHead] = nanos;
+        durationHead = (durationHead + 1) % WINDOW_1M;
+        durationCount = Math.min(durationCount + 1, WINDOW_1M);
+        sortedValid = false;
+    }
+    
+    /**
+     * Number of tick timestamps recorded, up to {@link #WINDOW_5M}
+     */
+    public int getSampleCount() {
+        return tickCount;
+    }
+    
+    /**
+     * Ticks per second over the last given number of ticks, at most 20
+     */
+    public double getTPS(int windowTicks) {
+        int samples = Math.min(windowTicks, tickCount);
+        if (samples < 2) {
+            return MAX_TPS;
+        }
+        
+        long newest = tickStarts[(tickHead + WINDOW_5M - 1) % WINDOW_5M];
+        long oldest = tickStarts[(tickHead + WINDOW_5M - samples) % WINDOW_5M];
+        if (newest <= oldest) {
+            return MAX_TPS;
+        }
+        return Math.min(MAX_TPS, (samples - 1) * 1_000_000_000.0 / (newest - oldest));
+    }
+    
+    /**
+     * Mean tick duration in milliseconds over the last minute
+     */
+    public double getAverageMspt() {
+        if (durationCount == 0) {
+            return 0.0;
+        }
+        return durationTotal / (durationCount * 1_000_000.0);
+    }
+    
+    /**
+     * Tick duration percentile in milliseconds over the last minute
+     *
+     * @param percentile between 0 and 100
+     */
+    public double getMsptPercentile(double percentile) {
+        if (durationCount == 0) {
+            return 0.0;
+        }
+        if (!sortedValid) {
+            if (sortedDurations.length != durationCount) {
+                sortedDurations = new long[durationCount];
+            }
+            System.arraycopy(durations, 0, sortedDurations, 0, durationCount);
+            Arrays.sort(sortedDurations);
+            sortedValid = true;
+        }
+        
+        int index = (int) Math.ceil(percentile / 100.0 * durationCount) - 1;
+        index = Math.max(0, Math.min(durationCount - 1, index));
+        return sortedDurations[index] / 1_000_000.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package avx.physics;
+
+import avx.physics.fake.Scene;
+import avx.physics.fake.Simulation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Collapse Simulation Tests")
+class CollapseSimulationTest {
+    
+    /** Far more checks than any built-in scene needs, to catch runaway chain reactions */
+    private static final long MAX_CHECKS = 200_000;
+    
+    @Test
+    @DisplayName("Every scene comes to rest")
+    void everySceneSettles() {
+        for (String name : Scene.NAMES) {
+            Simulation.Result result = Simulation.of(name).run();
+            assertTrue(result.isSettled(), "Scene did not settle: " + result);
+            assertTrue(result.getChecksProcessed() <= MAX_CHECKS, "Too many checks: " + result);
+            assertTrue(result.getBlocksLanded() <= result.getBlocksFallen(), "More blocks landed than fell: " + result);
+        }
+    }
+    
+    @Test
+    @DisplayName("The same scene always ends the same way")
+    void runsAreDeterministic() {
+        for (String name : Scene.NAMES) {
+            Simulation.Result first = Simulation.of(name).run();
+            Simulation.Result second = Simulation.of(name).run();
+            assertEquals(first.getChecksum(), second.getChecksum(), "World differs between runs of " + name);
+            assertEquals(first.getTicks(), second.getTicks(), "Ticks differ between runs of " + name);
+            assertEquals(first.getChecksProcessed(), second.getChecksProcessed(), "Checks differ between runs of " + name);
+            assertEquals(first.getBlocksFallen(), second.getBlocksFallen(), "Falls differ between runs of " + name);
+        }
+    }
+    
+    @Test
+    @DisplayName("Undermined tower collapses")
+    void towerFalls() {
+        Simulation.Result result = Simulation.of("tower").run();
+        assertTrue(result.getBlocksFallen() > 0, "Tower stood on nothing: " + result);
+    }
+    
+    @Test
+    @DisplayName("Falling entities stay within budget")
+    void entityBudgetIsKept() {
+        Simulation.Result result = Simulation.of("bridge")
+                .config("performance.max-falling-entities", 40)
+                .config("performance.max-falling-entities-per-chunk", 40)
+                .run();
+        assertTrue(result.isSettled(), "Scene did not settle: " + result);
+        assertTrue(result.getPeakFalling() <= 40, "Entity budget exceeded: " + result);
+        assertTrue(result.getBlocksRelocated() > 0, "No block moved without entity: " + result);
+    }
+    
+    @Test
+    @DisplayName("Crater wall on solid ground stays put")
+    void craterHolds() {
+        Simulation.Result result = Simulation.of("crater").run();
+        assertEquals(0L, result.getBlocksFallen(), "Crater blocks fell: " + result);
+    }
+    
+    @Test
+    @DisplayName("An explosion ends like breaking the same blocks one by one, with fewer checks")
+    void explosionMatchesBreaking() {
+        for (String name : Scene.NAMES) {
+            Simulation.Result broken = Simulation.of(name).run();
+            Simulation.Result exploded = Simulation.of(name).explode().run();
+            assertTrue(exploded.isSettled(), "Scene did not settle: " + exploded);
+            assertEquals(broken.getChecksum(), exploded.getChecksum(), "World differs after blowing up " + name);
+            assertTrue(exploded.getChecksEnqueued() <= broken.getChecksEnqueued(),
+                "More checks for the explosion: " + exploded + " / " + broken);
+        }
+    }
+}
\ No newline at end of file
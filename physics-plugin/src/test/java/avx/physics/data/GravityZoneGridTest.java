@@ -0,0 +1,92 @@
+package avx.physics.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GravityZoneGrid Tests")
+class GravityZoneGridTest {
+    
+    @Test
+    @DisplayName("Zones cover their own radius, measured from the block center")
+    void testRadius() {
+        GravityZoneGrid grid = new GravityZoneGrid();
+        GravityZone zone = new GravityZone(0, 64, 0, 25.0, 2.0, 0, 0);
+        grid.add(zone);
+        
+        assertSame(zone, grid.find(0.5 + 24.9, 64.5, 0.5), "Point inside the radius");
+        assertNull(grid.find(0.5 + 25.1, 64.5, 0.5), "Point outside the radius");
+        assertNull(grid.find(0.5 + 18.0, 64.5 + 18.0, 0.5), "Point inside the bounding box but outside the sphere");
+        assertSame(zone, grid.find(-24.0, 64.5, 0.5), "Point in a neighbouring cell");
+    }
+    
+    @Test
+    @DisplayName("Priority, then the newest zone, decides between overlapping zones")
+    void testOverlap() {
+        GravityZoneGrid grid = new GravityZoneGrid();
+        GravityZone low = new GravityZone(0, 64, 0, 10.0, 0.5, 0, 0);
+        GravityZone high = new GravityZone(5, 64, 0, 10.0, 2.0, 1, 1);
+        GravityZone newer = new GravityZone(3, 64, 0, 10.0, 3.0, 0, 2);
+        grid.add(low);
+        grid.add(high);
+        grid.add(newer);
+        
+        assertSame(high, grid.find(2.5, 64.5, 0.5), "Highest priority wins");
+        assertSame(newer, grid.find(-6.0, 64.5, 0.5), "Newest wins among equal priorities");
+        
+        grid.remove(high.getCenterKey());
+        assertSame(newer, grid.find(2.5, 64.5, 0.5), "Removed zone no longer applies");
+        assertEquals(2L, grid.size(), "Zones left");
+    }
+    
+    @Test
+    @DisplayName("A zone on the same block replaces the old one")
+    void testReplace() {
+        GravityZoneGrid grid = new GravityZoneGrid();
+        GravityZone large = new GravityZone(0, 64, 0, 1000.0, 0.5, 0, 0);
+        GravityZone small = new GravityZone(0, 64, 0, 5.0, 2.0, 0, 1);
+        grid.add(large);
+        
+        assertSame(large, grid.add(small), "Replaced zone");
+        assertEquals(1L, grid.size(), "Zones left");
+        assertNull(grid.find(500.0, 64.5, 0.5), "Replaced large zone no longer applies");
+        assertSame(small, grid.find(2.0, 64.5, 0.5), "New zone applies");
+    }
+    
+    @Test
+    @DisplayName("Lookups match a linear scan over many zones")
+    void testMatchesLinearScan() {
+        Random random = new Random(42);
+        GravityZoneGrid grid = new GravityZoneGrid();
+        List<GravityZone> zones = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Mostly small zones and a few covering hundreds of blocks
+            double radius = i % 50 == 0 ? 300.0 : 1.0 + random.nextDouble() * 40.0;
+            GravityZone zone = new GravityZone(random.nextInt(2000) - 1000, random.nextInt(128),
+                random.nextInt(2000) - 1000, radius, random.nextDouble() * 3.0, random.nextInt(3), i);
+            if (grid.add(zone) != null) {
+                zones.removeIf(other -> other.getCenterKey() == zone.getCenterKey());
+            }
+            zones.add(zone);
+        }
+        
+        for (int i = 0; i < 20000; i++) {
+            double x = random.nextDouble() * 2400.0 - 1200.0;
+            double y = random.nextDouble() * 128.0;
+            double z = random.nextDouble() * 2400.0 - 1200.0;
+            
+            GravityZone expected = null;
+            for (GravityZone zone : zones) {
+                if (zone.contains(x, y, z) && (expected == null || zone.outranks(expected))) {
+                    expected = zone;
+                }
+            }
+            assertSame(expected, grid.find(x, y, z), "Zone at " + x + ", " + y + ", " + z);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package avx.physics.managers;
+
+import avx.physics.data.BlockKey;
+import avx.physics.fake.FakeServer;
+import avx.physics.fake.FakeWorld;
+import avx.physics.fake.HeadlessPhysicsPlugin;
+import org.bukkit.Material;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EffectsManager Tests")
+class EffectsManagerTest {
+    
+    @Test
+    @DisplayName("Effects in the same chunk are played as one larger burst")
+    void testMergedPerChunk() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        FakeWorld world = server.createWorld("effects", 0, 256);
+        world.addPlayer(0.5, 64, 0.5);
+        EffectsManager effects = plugin.getEffectsManager();
+        
+        for (int y = 0; y < 50; y++) {
+            effects.addFalling(world.getWorld(), BlockKey.pack(3, 64 + y, 3), Material.STONE);
+        }
+        effects.addFalling(world.getWorld(), BlockKey.pack(20, 64, 3), Material.STONE);
+        effects.flush();
+        
+        assertEquals(2L, effects.getBurstsPlayed(), "One burst per chunk");
+        assertEquals(2L, world.getSoundsPlayed(), "One sound per burst");
+        assertEquals(Math.round(10 * Math.sqrt(50)) + 10, world.getParticlesSpawned(), "Particles grow with the block count");
+        assertEquals(51L, effects.getEffectsRequested(), "Effects requested");
+        
+        effects.flush();
+        assertEquals(2L, world.getSoundsPlayed(), "Played effects are not played again");
+    }
+    
+    @Test
+    @DisplayName("Falling blocks of different materials in a chunk get a burst each")
+    void testMaterialsPerChunk() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        FakeWorld world = server.createWorld("effects", 0, 256);
+        world.addPlayer(0.5, 64, 0.5);
+        EffectsManager effects = plugin.getEffectsManager();
+        
+        effects.addFalling(world.getWorld(), BlockKey.pack(3, 64, 3), Material.STONE);
+        effects.addFalling(world.getWorld(), BlockKey.pack(3, 65, 3), Material.OAK_PLANKS);
+        effects.addFalling(world.getWorld(), BlockKey.pack(4, 64, 3), Material.STONE);
+        effects.flush();
+        
+        assertEquals(2L, effects.getBurstsPlayed(), "One burst per material");
+        assertEquals(Math.round(10 * Math.sqrt(2)) + 10, world.getParticlesSpawned(), "Particles per material");
+    }
+    
+    @Test
+    @DisplayName("No more bursts than the budget per tick, busiest chunks first")
+    void testBudget() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server, Map.of(
+            "effects.max-bursts-per-tick", 4,
+            "effects.falling-particles", false));
+        FakeWorld world = server.createWorld("effects", 0, 256);
+        world.addPlayer(0.5, 64, 0.5);
+        EffectsManager effects = plugin.getEffectsManager();
+        
+        for (int chunk = 0; chunk < 10; chunk++) {
+            effects.addFalling(world.getWorld(), BlockKey.pack(chunk * 16, 64, 0), Material.STONE);
+        }
+        effects.addFalling(world.getWorld(), BlockKey.pack(9 * 16, 65, 0), Material.STONE);
+        effects.flush();
+        
+        assertEquals(4L, world.getSoundsPlayed(), "Sounds played");
+        assertEquals(0L, world.getParticlesSpawned(), "Disabled particles are not spawned");
+        assertEquals(6L, effects.getEffectsSkipped(), "Effects over the budget, with the busiest chunk played");
+        
+        effects.flush();
+        assertEquals(4L, world.getSoundsPlayed(), "Effects over the budget are dropped, not delayed");
+    }
+    
+    @Test
+    @DisplayName("The budget goes by chunk totals, however a chunk's blocks split across materials")
+    void testBudgetByChunk() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server, Map.of("effects.max-bursts-per-tick", 2));
+        FakeWorld world = server.createWorld("effects", 0, 256);
+        world.addPlayer(0.5, 64, 0.5);
+        EffectsManager effects = plugin.getEffectsManager();
+        
+        // Six blocks of two materials in one chunk, five of one material in the next
+        for (int y = 0; y < 3; y++) {
+            effects.addFalling(world.getWorld(), BlockKey.pack(0, 64 + y, 0), Material.STONE);
+            effects.addFalling(world.getWorld(), BlockKey.pack(1, 64 + y, 0), Material.OAK_PLANKS);
+        }
+        for (int y = 0; y < 5; y++) {
+            effects.addFalling(world.getWorld(), BlockKey.pack(16, 64 + y, 0), Material.STONE);
+        }
+        effects.flush();
+        
+        assertEquals(2L, effects.getBurstsPlayed(), "Bursts played");
+        assertEquals(5L, effects.getEffectsSkipped(), "Both bursts of the busier chunk played");
+    }
+    
+    @Test
+    @DisplayName("Nothing is played where no player can see it")
+    void testNoViewers() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        FakeWorld empty = server.createWorld("empty", 0, 256);
+        FakeWorld far = server.createWorld("far", 0, 256);
+        far.addPlayer(1000.5, 64, 0.5);
+        EffectsManager effects = plugin.getEffectsManager();
+        
+        effects.addFalling(empty.getWorld(), BlockKey.pack(0, 64, 0), Material.STONE);
+        effects.addImpact(far.getWorld(), BlockKey.pack(0, 64, 0));
+        effects.addImpact(far.getWorld(), BlockKey.pack(1000 - 16 * 10, 64, 0));
+        effects.flush();
+        
+        assertEquals(0L, empty.getParticlesSpawned() + empty.getSoundsPlayed(), "Effects in a world without players");
+        assertEquals(1L, far.getSoundsPlayed(), "Only the impact within view distance is played");
+        assertEquals(2L, effects.getEffectsSkipped(), "Effects nobody could see");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package avx.physics.managers;
+
+import avx.physics.fake.FakeEntity;
+import avx.physics.fake.FakeServer;
+import avx.physics.fake.FakeWorld;
+import avx.physics.fake.HeadlessPhysicsPlugin;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.FallingBlock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GravityManager Tests")
+class GravityManagerTest {
+    
+    private static final int TICKS = 10;
+    
+    /** Vertical speed of a vanilla falling block after the given ticks */
+    private static double vanillaVelocity(int ticks) {
+        double velocity = 0;
+        for (int i = 0; i < ticks; i++) {
+            velocity = (velocity - 0.04) * 0.98;
+        }
+        return velocity;
+    }
+    
+    @Test
+    @DisplayName("Zones act on the plugin's falling blocks every tick and leave others alone")
+    void testOnlyPluginEntities() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server, Map.of("gravity.air-resistance", 0.0));
+        FakeWorld world = server.createWorld("gravity", 0, 256);
+        plugin.getGravityManager().setGravityZone(new Location(world.getWorld(), 0, 200, 0), 50, 2.0);
+        plugin.start();
+        
+        world.setType(0, 200, 0, Material.STONE);
+        plugin.getPhysicsManager().makeBlockFall(world.getBlockAt(0, 200, 0));
+        FallingBlock vanilla = world.getWorld().spawnFallingBlock(
+            new Location(world.getWorld(), 4.5, 200, 0.5), Material.SAND.createBlockData());
+        
+        FallingBlock tracked = null;
+        for (FakeEntity entity : world.getEntities()) {
+            if (plugin.getPhysicsManager().isPluginEntity(entity.getEntity())) {
+                tracked = entity.getEntity();
+            }
+        }
+        assertNotNull(tracked, "Falling block of the plugin is tracked");
+        assertFalse(plugin.getPhysicsManager().isPluginEntity(vanilla), "Vanilla falling block is not tracked");
+        
+        for (int i = 0; i < TICKS; i++) {
+            server.tick();
+        }
+        
+        assertEquals(vanillaVelocity(TICKS), vanilla.getVelocity().getY(), 1e-9, "Vanilla falling block speed");
+        assertTrue(tracked.getVelocity().getY() < vanillaVelocity(TICKS) * 1.5,
+            "Double gravity speeds up the plugin's falling block: " + tracked.getVelocity().getY());
+    }
+    
+    @Test
+    @DisplayName("With the default config a falling block outside zones falls like vanilla")
+    void testDefaultConfig() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        FakeWorld world = server.createWorld("gravity", 0, 256);
+        assertTrue(plugin.getConfigManager().getAirResistance() > 0, "Default config has air resistance");
+        plugin.start();
+        
+        world.setType(0, 200, 0, Material.STONE);
+        plugin.getPhysicsManager().makeBlockFall(world.getBlockAt(0, 200, 0));
+        FallingBlock tracked = world.getEntities().get(0).getEntity();
+        
+        for (int i = 0; i < TICKS; i++) {
+            server.tick();
+        }
+        
+        assertEquals(vanillaVelocity(TICKS), tracked.getVelocity().getY(), 1e-9,
+            "Air resistance is not added to vanilla drag every tick");
+    }
+    
+    @Test
+    @DisplayName("Outside every zone the default strength applies")
+    void testDefaultStrength() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        FakeWorld world = server.createWorld("gravity", 0, 256);
+        plugin.getGravityManager().setGravityZone(new Location(world.getWorld(), 0, 100, 0), 10, 0.5);
+        
+        assertEquals(0.5, plugin.getGravityManager().getGravityStrength(new Location(world.getWorld(), 9, 100, 0)), 0,
+            "Strength inside the zone");
+        assertEquals(plugin.getConfigManager().getDefaultGravityStrength(),
+            plugin.getGravityManager().getGravityStrength(new Location(world.getWorld(), 12, 100, 0)), 0,
+            "Strength outside the zone");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package avx.physics.managers;
+
+import avx.physics.data.BlockKey;
+import avx.physics.fake.FakeEntity;
+import avx.physics.fake.FakeServer;
+import avx.physics.fake.FakeWorld;
+import avx.physics.fake.HeadlessPhysicsPlugin;
+import org.bukkit.Material;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PhysicsManager Tests")
+class PhysicsManagerTest {
+    
+    /** Ticks between sweeps for falling blocks that went without an event */
+    private static final int SWEEP_TICKS = 20;
+    
+    @Test
+    @DisplayName("A falling block is forgotten as soon as it lands")
+    void testForgottenOnLanding() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        FakeWorld world = server.createWorld("falling", 0, 256);
+        world.fill(-2, 0, -2, 2, 63, 2, Material.STONE);
+        world.setType(0, 67, 0, Material.STONE);
+        PhysicsManager physics = plugin.getPhysicsManager();
+        plugin.start();
+        
+        physics.makeBlockFall(world.getBlockAt(0, 67, 0));
+        assertEquals(1, physics.getFallingBlocksCount(), "Falling block tracked");
+        assertEquals(1, physics.getFallingEntitiesCount(), "Falling entity tracked");
+        
+        int ticks = 0;
+        while (world.getFallingCount() > 0) {
+            server.tick();
+            ticks++;
+        }
+        assertTrue(ticks < SWEEP_TICKS, "Landed before the first sweep: " + ticks);
+        assertEquals(Material.STONE, world.getType(0, 64, 0), "Block landed");
+        assertEquals(0, physics.getFallingBlocksCount(), "Falling block forgotten on landing");
+        assertEquals(0, physics.getFallingEntitiesCount(), "Falling entity forgotten on landing");
+    }
+    
+    @Test
+    @DisplayName("A falling block that disappears without an event is swept up")
+    void testSweep() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server);
+        FakeWorld world = server.createWorld("falling", 0, 256);
+        world.setType(0, 200, 0, Material.STONE);
+        PhysicsManager physics = plugin.getPhysicsManager();
+        plugin.start();
+        
+        physics.makeBlockFall(world.getBlockAt(0, 200, 0));
+        for (FakeEntity entity : world.getEntities()) {
+            entity.remove();
+        }
+        server.tick();
+        assertEquals(1, physics.getFallingBlocksCount(), "Still tracked until the sweep");
+        
+        for (int i = 0; i < SWEEP_TICKS; i++) {
+            server.tick();
+        }
+        assertEquals(0, physics.getFallingBlocksCount(), "Falling block swept up");
+        assertEquals(0, physics.getFallingEntitiesCount(), "Falling entity swept up");
+    }
+    
+    @Test
+    @DisplayName("An async result is re-checked against support placed after the snapshot")
+    void testAsyncRecheck() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server, Map.of("performance.async-processing", true));
+        FakeWorld world = server.createWorld("async", 0, 256);
+        world.setType(0, 70, 0, Material.STONE);
+        PhysicsManager physics = plugin.getPhysicsManager();
+        plugin.start();
+        
+        physics.addPendingPhysicsCheck(world.getWorld(), BlockKey.pack(0, 70, 0));
+        while (physics.getPendingChecksCount() > 0) {
+            server.tick();
+        }
+        
+        // Prop the block up while the analysis runs on the snapshot
+        world.fill(0, 0, 0, 0, 69, 0, Material.STONE);
+        plugin.getStructureManager().invalidateCache(world.getBlockAt(0, 69, 0));
+        for (int i = 0; i < 5; i++) {
+            server.tick();
+        }
+        assertEquals(Material.STONE, world.getType(0, 70, 0), "Block with new support stays");
+        assertEquals(0L, physics.getFallingEntitiesSpawned() + physics.getBlocksRelocated(), "Nothing fell");
+    }
+    
+    @Test
+    @DisplayName("A block moved without an entity stops on fluids and is counted if lost")
+    void testRelocation() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server, Map.of("performance.max-falling-entities", 0));
+        FakeWorld world = server.createWorld("relocation", 0, 256);
+        world.setType(0, 59, 0, Material.STONE);
+        world.fill(0, 60, 0, 0, 63, 0, Material.WATER);
+        world.setType(0, 70, 0, Material.STONE);
+        world.setType(5, 70, 0, Material.STONE);
+        PhysicsManager physics = plugin.getPhysicsManager();
+        
+        physics.makeBlockFall(world.getBlockAt(0, 70, 0));
+        assertEquals(Material.STONE, world.getType(0, 64, 0), "Block landed on the water");
+        assertEquals(Material.WATER, world.getType(0, 63, 0), "Water was not replaced");
+        
+        physics.makeBlockFall(world.getBlockAt(5, 70, 0));
+        assertEquals(Material.AIR, world.getType(5, 70, 0), "Block with nothing below left");
+        assertEquals(1L, physics.getBlocksRelocated(), "Blocks that landed");
+        assertEquals(1L, physics.getBlocksLost(), "Blocks that fell out of the world");
+    }
+}
@@ -0,0 +1,218 @@
+package avx.physics.structure;
+
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongHashSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConnectivityIndex Concurrency Tests")
+class ConnectivityIndexConcurrencyTest {
+    
+    private static final int SIZE = 48;
+    private static final int MIN_Y = 0;
+    private static final int HEIGHT = 64;
+    private static final int THREADS = 8;
+    
+    /**
+     * Block view over a fixed box of blocks; everything outside is air
+     */
+    private static class GridView implements BlockView {
+        private final byte[] kinds = new byte[SIZE * HEIGHT * SIZE];
+        
+        byte get(int x, int y, int z) {
+            return kinds[(y * SIZE + z) * SIZE + x];
+        }
+        
+        void set(int x, int y, int z, byte kind) {
+            kinds[(y * SIZE + z) * SIZE + x] = kind;
+        }
+        
+        @Override
+        public byte getKind(int x, int y, int z) {
+            if (x < 0 || z < 0 || x >= SIZE || z >= SIZE || y < MIN_Y || y >= MIN_Y + HEIGHT) {
+                return NONE;
+            }
+            return get(x, y, z);
+        }
+        
+        @Override
+        public boolean isChunkLoaded(int chunkX, int chunkZ) {
+            return true;
+        }
+        
+        @Override
+        public int getMinHeight() {
+            return MIN_Y;
+        }
+        
+        @Override
+        public int getMaxHeight() {
+            return MIN_Y + HEIGHT;
+        }
+    }
+    
+    /**
+     * Towers standing on the floor, each carrying a floating slab that is
+     * not connected to it
+     */
+    private static GridView buildScene() {
+        GridView view = new GridView();
+        for (int x = 2; x < SIZE; x += 6) {
+            for (int z = 2; z < SIZE; z += 6) {
+                for (int y = MIN_Y; y < MIN_Y + 40; y++) {
+                    view.set(x, y, z, BlockView.PHYSICS);
+                }
+                for (int dx = 0; dx < 3; dx++) {
+                    view.set(x + dx, MIN_Y + 50, z, BlockView.PHYSICS);
+                }
+            }
+        }
+        return view;
+    }
+    
+    private static void runConcurrently(int threads, ThrowingTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(id);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ThrowingTask {
+        void run(int threadId) throws Exception;
+    }
+    
+    @Test
+    @DisplayName("Concurrent readers should agree with a single-threaded index")
+    void testConcurrentReaders() throws Exception {
+        GridView view = buildScene();
+        ConnectivityIndex shared = new ConnectivityIndex(view, 64, 1, new SectionCache(Long.MAX_VALUE));
+        ConnectivityIndex reference = new ConnectivityIndex(view, 64, 1);
+        
+        runConcurrently(THREADS, id -> {
+            Random random = new Random(id);
+            for (int i = 0; i < 20000; i++) {
+                int x = random.nextInt(SIZE);
+                int y = MIN_Y + random.nextInt(HEIGHT);
+                int z = random.nextInt(SIZE);
+                boolean expected;
+                synchronized (reference) {
+                    expected = reference.isSupported(x, y, z);
+                }
+                assertEquals(expected, shared.isSupported(x, y, z), "Support mismatch at " + x + "," + y + "," + z);
+            }
+        });
+        
+        assertTrue(shared.isSupported(2, MIN_Y + 39, 2), "Tower should be supported");
+        assertFalse(shared.isSupported(2, MIN_Y + 50, 2), "Floating slab should not be supported");
+    }
+    
+    @Test
+    @DisplayName("Readers should survive concurrent block changes")
+    void testReadersWithWriter() throws Exception {
+        GridView view = buildScene();
+        SectionCache cache = new SectionCache(Long.MAX_VALUE);
+        ConnectivityIndex index = new ConnectivityIndex(view, 64, 1, cache);
+        
+        runConcurrently(THREADS, id -> {
+            Random random = new Random(id);
+            for (int i = 0; i < 20000; i++) {
+                int x = random.nextInt(SIZE);
+                int y = MIN_Y + random.nextInt(HEIGHT);
+                int z = random.nextInt(SIZE);
+                if (id == 0) {
+                    // Single writer, as block changes come from the main thread
+                    view.set(x, y, z, random.nextInt(3) == 0 ? BlockView.NONE : BlockView.PHYSICS);
+                    index.markChanged(x, y, z);
+                } else if (random.nextBoolean()) {
+                    SupportComponent component = index.getComponent(x, y, z);
+                    if (component != null) {
+                        long[] count = new long[1];
+                        component.forEachPhysicsBlock(key -> count[0]++);
+                        assertEquals(component.getBlockCount(), count[0], "Component blocks changed after it was resolved");
+                    }
+                } else {
+                    index.findUnsupported(new long[]{BlockKey.pack(x, y, z)}, new LongHashSet());
+                }
+            }
+        });
+        
+        // Once writes stop, the index must match a fresh one over the final world
+        ConnectivityIndex fresh = new ConnectivityIndex(view, 64, 1);
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                for (int y = MIN_Y; y < MIN_Y + HEIGHT; y++) {
+                    assertEquals(fresh.isSupported(x, y, z), index.isSupported(x, y, z),
+                            "Stale support at " + x + "," + y + "," + z);
+                }
+            }
+        }
+        
+        index.clear();
+        assertEquals(0, cache.size(), "Cleared index should leave no sections in the cache");
+        assertEquals(0, cache.getUsedBytes(), "Cleared index should release its bytes");
+    }
+    
+    @Test
+    @DisplayName("Indexes sharing a small cache should stay within budget")
+    void testSharedCacheEviction() throws Exception {
+        GridView view = buildScene();
+        SectionCache cache = new SectionCache(256 * 1024);
+        ConnectivityIndex[] indexes = new ConnectivityIndex[4];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = new ConnectivityIndex(view, 64, 1, cache);
+        }
+        
+        runConcurrently(THREADS, id -> {
+            Random random = new Random(id);
+            ConnectivityIndex reference = new ConnectivityIndex(view, 64, 1);
+            for (int i = 0; i < 5000; i++) {
+                int x = random.nextInt(SIZE);
+                int y = MIN_Y + random.nextInt(HEIGHT);
+                int z = random.nextInt(SIZE);
+                ConnectivityIndex index = indexes[random.nextInt(indexes.length)];
+                assertEquals(reference.isSupported(x, y, z), index.isSupported(x, y, z),
+                        "Eviction changed the answer at " + x + "," + y + "," + z);
+            }
+        });
+        
+        assertTrue(cache.getEvictions() > 0, "Small cache should have evicted sections");
+        
+        int sections = 0;
+        for (ConnectivityIndex index : indexes) {
+            sections += index.getSectionCount();
+        }
+        assertEquals(sections, cache.size(), "Cache should track exactly the indexed sections");
+        
+        for (ConnectivityIndex index : indexes) {
+            index.clear();
+        }
+        assertEquals(0, cache.getUsedBytes(), "Cleared indexes should release every byte");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package avx.physics.structure;
+
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongHashSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConnectivityIndex Tests")
+class ConnectivityIndexTest {
+    
+    private static final int SIZE = 64;
+    private static final int HEIGHT = 64;
+    private static final int SEARCH_RADIUS = 10;
+    
+    /**
+     * Block view over a fixed box of blocks with one unloaded chunk column;
+     * everything outside is air
+     */
+    private static class GridView implements BlockView {
+        private final byte[] kinds = new byte[SIZE * HEIGHT * SIZE];
+        private int unloadedChunkX = Integer.MIN_VALUE;
+        
+        void set(int x, int y, int z, byte kind) {
+            kinds[(y * SIZE + z) * SIZE + x] = kind;
+        }
+        
+        @Override
+        public byte getKind(int x, int y, int z) {
+            if (!isChunkLoaded(x >> 4, z >> 4)) {
+                return UNLOADED;
+            }
+            if (x < 0 || z < 0 || x >= SIZE || z >= SIZE || y < 0 || y >= HEIGHT) {
+                return NONE;
+            }
+            return kinds[(y * SIZE + z) * SIZE + x];
+        }
+        
+        @Override
+        public boolean isChunkLoaded(int chunkX, int chunkZ) {
+            return chunkX != unloadedChunkX;
+        }
+        
+        @Override
+        public int getMinHeight() {
+            return 0;
+        }
+        
+        @Override
+        public int getMaxHeight() {
+            return HEIGHT;
+        }
+    }
+    
+    /**
+     * A beam at y 40 from x 0 to 60, resting on a pillar at its far end only
+     */
+    private static GridView buildBeam() {
+        GridView view = new GridView();
+        for (int x = 0; x <= 60; x++) {
+            view.set(x, 40, 0, BlockView.PHYSICS);
+        }
+        for (int y = 0; y < 40; y++) {
+            view.set(60, y, 0, BlockView.PHYSICS);
+        }
+        return view;
+    }
+    
+    @Test
+    @DisplayName("Support should not depend on what earlier queries indexed")
+    void testIndependentOfHistory() {
+        GridView view = buildBeam();
+        ConnectivityIndex fresh = new ConnectivityIndex(view, SEARCH_RADIUS, 1);
+        ConnectivityIndex warmed = new ConnectivityIndex(view, SEARCH_RADIUS, 1);
+        
+        // Index the whole beam and pillar, so every section is already linked
+        for (int x = 60; x >= 0; x--) {
+            warmed.isSupported(x, 40, 0);
+        }
+        for (int y = 0; y < 40; y++) {
+            warmed.isSupported(60, y, 0);
+        }
+        
+        for (int x = 0; x <= 60; x++) {
+            assertEquals(fresh.isSupported(x, 40, 0), warmed.isSupported(x, 40, 0), "Support changed by history at x " + x);
+        }
+        assertFalse(fresh.isSupported(0, 40, 0), "Span past the search radius should not count as support");
+        assertTrue(fresh.isSupported(60, 40, 0), "Beam end on the pillar should be supported");
+    }
+    
+    @Test
+    @DisplayName("Blocks of an unsupported structure whose own search reaches support should not be dropped")
+    void testOwnSearchBox() {
+        // The beam rests on a pillar in chunk 1, past the search box of its start at x 0
+        GridView view = new GridView();
+        for (int x = 0; x <= 20; x++) {
+            view.set(x, 40, 0, BlockView.PHYSICS);
+        }
+        for (int y = 0; y < 40; y++) {
+            view.set(20, y, 0, BlockView.PHYSICS);
+        }
+        ConnectivityIndex index = new ConnectivityIndex(view, SEARCH_RADIUS, 1);
+        
+        LongHashSet unsupported = index.findUnsupported(new long[]{BlockKey.pack(0, 40, 0)});
+        
+        assertTrue(unsupported.contains(BlockKey.pack(0, 40, 0)), "Queried block should be unsupported");
+        assertFalse(unsupported.contains(BlockKey.pack(10, 40, 0)), "Block whose search box reaches the pillar should stay");
+        unsupported.forEach(key -> assertFalse(index.isSupported(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key)),
+            "Every dropped block should be unsupported on its own"));
+    }
+    
+    @Test
+    @DisplayName("Sections should be read again once they expire, catching changes without notice")
+    void testExpire() throws InterruptedException {
+        GridView view = buildBeam();
+        ConnectivityIndex index = new ConnectivityIndex(view, SEARCH_RADIUS, 1);
+        assertTrue(index.isSupported(60, 40, 0), "Beam end on the pillar should be supported");
+        
+        // Remove the pillar without telling the index
+        for (int y = 0; y < 40; y++) {
+            view.set(60, y, 0, BlockView.NONE);
+        }
+        assertTrue(index.isSupported(60, 40, 0), "Index should not see unreported changes yet");
+        
+        Thread.sleep(10);
+        assertTrue(index.expireOlderThan(5) > 0, "Indexed sections should expire");
+        assertFalse(index.isSupported(60, 40, 0), "Expired sections should be read again");
+    }
+    
+    @Test
+    @DisplayName("Unloaded chunks should count as support")
+    void testUnloadedIsSupport() {
+        GridView view = buildBeam();
+        view.unloadedChunkX = 1;
+        ConnectivityIndex index = new ConnectivityIndex(view, SEARCH_RADIUS, 1);
+        
+        assertTrue(index.isSupported(14, 40, 0), "Beam running into an unloaded chunk should be supported");
+        assertFalse(index.isSupported(0, 40, 0), "Unloaded chunk past the search box should not count");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package avx.physics.fake;
+
+import org.bukkit.Location;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.FallingBlock;
+import org.bukkit.util.Vector;
+
+import java.util.UUID;
+
+/**
+ * A falling block entity of a {@link FakeWorld}.
+ *
+ * Moves like a vanilla falling block on every server tick: gravity of 0.04
+ * blocks per tick squared, a drag of 2% per tick, and a landing on the first
+ * non-air block below. Only vertical collisions are checked.
+ */
+public final class FakeEntity {
+    
+    private static final double GRAVITY = 0.04;
+    private static final double DRAG = 0.98;
+    
+    /** Vanilla drops a falling block that has not landed after this many ticks */
+    private static final int MAX_AGE = 600;
+    
+    private static int nextEntityId = 1;
+    
+    private final FakeWorld world;
+    private final UUID uniqueId;
+    private final int entityId;
+    private final BlockData blockData;
+    private final FallingBlock entity;
+    private final Location location;
+    private Vector velocity = new Vector();
+    private boolean removed;
+    private boolean onGround;
+    private boolean gravity = true;
+    private boolean dropItem = true;
+    private int ticksLived;
+    
+    FakeEntity(FakeWorld world, Location location, BlockData blockData) {
+        this.world = world;
+        this.entityId = nextEntityId++;
+        this.uniqueId = new UUID(0L, entityId);
+        this.location = location;
+        this.blockData = blockData;
+        this.entity = Proxies.create(FallingBlock.class, this, this::invoke);
+    }
+    
+    /**
+     * The fake behind a falling block spawned in a {@link FakeWorld}
+     */
+    public static FakeEntity of(FallingBlock entity) {
+        return (FakeEntity) Proxies.ownerOf(entity);
+    }
+    
+    public FallingBlock getEntity() {
+        return entity;
+    }
+    
+    public FakeWorld getWorld() {
+        return world;
+    }
+    
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+    
+    public BlockData getBlockData() {
+        return blockData;
+    }
+    
+    /**
+     * Live position of the entity
+     */
+    public Location getLocation() {
+        return location;
+    }
+    
+    /**
+     * Live velocity of the entity
+     */
+    public Vector getVelocity() {
+        return velocity;
+    }
+    
+    public boolean isValid() {
+        return !removed;
+    }
+    
+    public void remove() {
+        removed = true;
+    }
+    
+    public boolean isOnGround() {
+        return onGround;
+    }
+    
+    public void setOnGround(boolean onGround) {
+        this.onGround = onGround;
+    }
+    
+    public boolean hasGravity() {
+        return gravity;
+    }
+    
+    public int getTicksLived() {
+        return ticksLived;
+    }
+    
+    public void setTicksLived(int ticksLived) {
+        this.ticksLived = ticksLived;
+    }
+    
+    /**
+     * Move one tick
+     *
+     * @return true if the entity came to rest on a block
+     */
+    boolean tick() {
+        ticksLived++;
+        if (gravity) {
+            velocity.setY(velocity.getY() - GRAVITY);
+        }
+        
+        double y = location.getY();
+        double targetY = y + velocity.getY();
+        location.setX(location.getX() + velocity.getX());
+        location.setZ(location.getZ() + velocity.getZ());
+        onGround = false;
+        
+        if (velocity.getY() < 0) {
+            // Stop on the first block whose top is crossed on the way down
+            int x = location.getBlockX();
+            int z = location.getBlockZ();
+            for (int blockY = (int) Math.floor(y) - 1; blockY >= (int) Math.ceil(targetY) - 1; blockY--) {
+                if (!world.getType(x, blockY, z).isAir()) {
+                    targetY = blockY + 1;
+                    onGround = true;
+                    velocity.setY(0);
+                    break;
+                }
+            }
+        }
+        location.setY(targetY);
+        velocity.multiply(DRAG);
+        
+        if (!onGround && (targetY < world.getMinHeight() || ticksLived > MAX_AGE)) {
+            removed = true;
+        }
+        return onGround;
+    }
+    
+    private Object invoke(String method, Object[] args) {
+        switch (method) {
+            case "getUniqueId":
+                return uniqueId;
+            case "getEntityId":
+                return entityId;
+            case "getType":
+                return EntityType.FALLING_BLOCK;
+            case "getWorld":
+                return world.getWorld();
+            case "getLocation":
+                if (args.length == 1) {
+                    Location target = (Location) args[0];
+                    target.setWorld(location.getWorld());
+                    target.setX(location.getX());
+                    target.setY(location.getY());
+                    target.setZ(location.getZ());
+                    return target;
+                }
+                return location.clone();
+            case "teleport":
+                Location to = (Location) args[0];
+                location.setX(to.getX());
+                location.setY(to.getY());
+                location.setZ(to.getZ());
+                return true;
+            case "getVelocity":
+                return velocity.clone();
+            case "setVelocity":
+                velocity = ((Vector) args[0]).clone();
+                return null;
+            case "getBlockData":
+                return blockData;
+            case "isValid":
+                return !removed;
+            case "isDead":
+                return removed;
+            case "remove":
+                removed = true;
+                return null;
+            case "isOnGround":
+                return onGround;
+            case "getTicksLived":
+                return ticksLived;
+            case "hasGravity":
+                return gravity;
+            case "setGravity":
+                gravity = (Boolean) args[0];
+                return null;
+            case "getDropItem":
+                return dropItem;
+            case "setDropItem":
+                dropItem = (Boolean) args[0];
+                return null;
+            default:
+                return Proxies.UNHANDLED;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package avx.physics.fake;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Event dispatch of the fake server.
+ *
+ * Registered listeners are called for every event their handler methods
+ * accept, in priority order and then in registration order, honouring
+ * ignoreCancelled. Exceptions thrown by a handler are passed on to the
+ * caller instead of being logged, so tests fail on them.
+ */
+public final class FakePluginManager {
+    
+    private final List<Handler> handlers = new ArrayList<>();
+    private final PluginManager pluginManager;
+    
+    FakePluginManager() {
+        this.pluginManager = Proxies.create(PluginManager.class, this, this::invoke);
+    }
+    
+    public PluginManager getPluginManager() {
+        return pluginManager;
+    }
+    
+    public void registerEvents(Listener listener) {
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            if (annotation != null && method.getParameterCount() == 1
+                    && Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                handlers.add(new Handler(listener, method, annotation));
+            }
+        }
+        // Stable sort keeps registration order within a priority
+        handlers.sort(Comparator.comparingInt(handler -> handler.annotation.priority().ordinal()));
+    }
+    
+    /**
+     * Call every handler of the event
+     *
+     * @return the event, for checking whether a handler cancelled it
+     */
+    public <T extends Event> T callEvent(T event) {
+        for (Handler handler : handlers) {
+            if (!handler.method.getParameterTypes()[0].isInstance(event)) {
+                continue;
+            }
+            if (handler.annotation.ignoreCancelled() && event instanceof Cancellable && ((Cancellable) event).isCancelled()) {
+                continue;
+            }
+            try {
+                handler.method.invoke(handler.listener, event);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return event;
+    }
+    
+    void clear() {
+        handlers.clear();
+    }
+    
+    private Object invoke(String method, Object[] args) {
+        switch (method) {
+            case "registerEvents":
+                registerEvents((Listener) args[0]);
+                return null;
+            case "callEvent":
+                callEvent((Event) args[0]);
+                return null;
+            case "isPluginEnabled":
+                return args[0] instanceof Plugin;
+            default:
+                return Proxies.UNHANDLED;
+        }
+    }
+    
+    private static final class Handler {
+        
+        final Listener listener;
+        final Method method;
+        final EventHandler annotation;
+        
+        Handler(Listener listener, Method method, EventHandler annotation) {
+            this.listener = listener;
+            this.method = method;
+            this.annotation = annotation;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+package avx.physics.fake;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Scheduler of the fake server, driven by {@link FakeServer#tick()}.
+ *
+ * Tasks run in order of their due tick and then of scheduling. Async tasks
+ * run on the calling thread like sync ones, so a simulation gives the same
+ * result on every run.
+ */
+public final class FakeScheduler {
+    
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>(
+            Comparator.comparingLong((Task task) -> task.due).thenComparingInt(task -> task.id));
+    private final BukkitScheduler scheduler;
+    private int nextId = 1;
+    private long currentTick;
+    
+    FakeScheduler() {
+        this.scheduler = Proxies.create(BukkitScheduler.class, this, this::invoke);
+    }
+    
+    public BukkitScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Number of tasks waiting to run, including repeating ones
+     */
+    public int getPendingCount() {
+        return tasks.size();
+    }
+    
+    /**
+     * Run every task that is due at the given tick
+     */
+    void tick(long tick) {
+        currentTick = tick;
+        while (!tasks.isEmpty() && tasks.peek().due <= tick) {
+            Task task = tasks.poll();
+            if (task.cancelled) {
+                continue;
+            }
+            if (task.period > 0) {
+                task.due += task.period;
+                tasks.add(task);
+            }
+            task.run();
+        }
+    }
+    
+    void clear() {
+        tasks.clear();
+        currentTick = 0;
+    }
+    
+    private Object invoke(String method, Object[] args) {
+        switch (method) {
+            case "runTask":
+            case "runTaskAsynchronously":
+                return schedule(args[0], args[1], 0, 0).handle;
+            case "runTaskLater":
+            case "runTaskLaterAsynchronously":
+                return schedule(args[0], args[1], (Long) args[2], 0).handle;
+            case "runTaskTimer":
+            case "runTaskTimerAsynchronously":
+                return schedule(args[0], args[1], (Long) args[2], (Long) args[3]).handle;
+            case "scheduleSyncDelayedTask":
+                return schedule(args[0], args[1], args.length > 2 ? (Long) args[2] : 0, 0).id;
+            case "scheduleSyncRepeatingTask":
+                return schedule(args[0], args[1], (Long) args[2], (Long) args[3]).id;
+            case "cancelTask":
+                tasks.removeIf(task -> task.id == (Integer) args[0]);
+                return null;
+            case "cancelTasks":
+                tasks.removeIf(task -> task.owner == args[0]);
+                return null;
+            case "isQueued":
+            case "isCurrentlyRunning":
+                return tasks.stream().anyMatch(task -> task.id == (Integer) args[0]);
+            case "callSyncMethod":
+                try {
+                    return CompletableFuture.completedFuture(((Callable<?>) args[1]).call());
+                } catch (Exception e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            case "getMainThreadExecutor":
+                return (Executor) runnable -> schedule(args[0], runnable, 0, 0);
+            default:
+                return Proxies.UNHANDLED;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Task schedule(Object owner, Object work, long delay, long period) {
+        Task task = new Task(nextId++, (Plugin) owner, currentTick + Math.max(1, delay), period);
+        if (work instanceof Runnable) {
+            task.runnable = (Runnable) work;
+        } else {
+            Consumer<BukkitTask> consumer = (Consumer<BukkitTask>) work;
+            task.runnable = () -> consumer.accept(task.handle);
+        }
+        tasks.add(task);
+        return task;
+    }
+    
+    private final class Task {
+        
+        final int id;
+        final Plugin owner;
+        final long period;
+        final BukkitTask handle;
+        long due;
+        Runnable runnable;
+        boolean cancelled;
+        
+        Task(int id, Plugin owner, long due, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.due = due;
+            this.period = period;
+            this.handle = Proxies.create(BukkitTask.class, this, this::invoke);
+        }
+        
+        void run() {
+            runnable.run();
+        }
+        
+        private Object invoke(String method, Object[] args) {
+            switch (method) {
+                case "getTaskId":
+                    return id;
+                case "getOwner":
+                    return owner;
+                case "isSync":
+                    return true;
+                case "isCancelled":
+                    return cancelled;
+                case "cancel":
+                    cancelled = true;
+                    tasks.remove(this);
+                    return null;
+                default:
+                    return Proxies.UNHANDLED;
+            }
+        }
+    }
+}
\ No newline at end of file
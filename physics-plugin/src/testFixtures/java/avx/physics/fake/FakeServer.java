@@ -0,0 +1,153 @@
+package avx.physics.fake;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Bukkit server for running the plugin without Minecraft, in benchmarks
+ * and simulations.
+ *
+ * Bukkit only accepts one server per JVM, so there is a single instance;
+ * {@link #install()} sets it up on first use and resets it afterwards.
+ * Time only passes through {@link #tick()}.
+ */
+public final class FakeServer {
+    
+    private static FakeServer instance;
+    
+    private final Server server;
+    private final FakeScheduler scheduler = new FakeScheduler();
+    private final FakePluginManager pluginManager = new FakePluginManager();
+    private final Map<UUID, FakeWorld> worlds = new LinkedHashMap<>();
+    private final Logger logger = Logger.getLogger("FakeServer");
+    private int currentTick;
+    
+    private FakeServer() {
+        this.server = Proxies.create(Server.class, this, this::invoke);
+    }
+    
+    /**
+     * Install the fake server, or reset it to no worlds, no tasks and tick 0
+     * if it already is
+     */
+    public static synchronized FakeServer install() {
+        if (instance == null) {
+            instance = new FakeServer();
+            Bukkit.setServer(instance.server);
+        }
+        instance.worlds.clear();
+        instance.scheduler.clear();
+        instance.pluginManager.clear();
+        instance.currentTick = 0;
+        return instance;
+    }
+    
+    public Server getServer() {
+        return server;
+    }
+    
+    public FakeScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    public FakePluginManager getPluginManager() {
+        return pluginManager;
+    }
+    
+    public Logger getLogger() {
+        return logger;
+    }
+    
+    public int getCurrentTick() {
+        return currentTick;
+    }
+    
+    /**
+     * Create an empty world
+     */
+    public FakeWorld createWorld(String name, int minHeight, int maxHeight) {
+        FakeWorld world = new FakeWorld(this, name, minHeight, maxHeight);
+        worlds.put(world.getWorld().getUID(), world);
+        return world;
+    }
+    
+    public List<FakeWorld> getWorlds() {
+        return new ArrayList<>(worlds.values());
+    }
+    
+    /**
+     * Advance one game tick: run the tasks due on it, then move the entities
+     * of every world, like a server tick does
+     */
+    public void tick() {
+        currentTick++;
+        scheduler.tick(currentTick);
+        for (FakeWorld world : worlds.values()) {
+            world.tickEntities();
+        }
+    }
+    
+    private Object invoke(String method, Object[] args) {
+        switch (method) {
+            case "getLogger":
+                return logger;
+            case "getName":
+                return "FakeServer";
+            case "getVersion":
+            case "getBukkitVersion":
+            case "getMinecraftVersion":
+                return "1.20.4";
+            case "getScheduler":
+                return scheduler.getScheduler();
+            case "getPluginManager":
+                return pluginManager.getPluginManager();
+            case "getWorld":
+                if (args[0] instanceof UUID) {
+                    FakeWorld world = worlds.get(args[0]);
+                    return world == null ? null : world.getWorld();
+                }
+                for (FakeWorld world : worlds.values()) {
+                    if (world.getName().equals(args[0])) {
+                        return world.getWorld();
+                    }
+                }
+                return null;
+            case "getWorlds":
+                List<World> list = new ArrayList<>();
+                for (FakeWorld world : worlds.values()) {
+                    list.add(world.getWorld());
+                }
+                return list;
+            case "getTPS":
+                return new double[]{20.0, 20.0, 20.0};
+            case "getTickTimes":
+                return new long[100];
+            case "getAverageTickTime":
+                return 0.0;
+            case "isPrimaryThread":
+                return true;
+            case "getOnlinePlayers":
+                return Collections.emptyList();
+            case "getViewDistance":
+            case "getSimulationDistance":
+                return 10;
+            case "createBlockData":
+                if (args[0] instanceof Material) {
+                    return FakeWorld.blockData((Material) args[0]);
+                }
+                return Proxies.UNHANDLED;
+            default:
+                return Proxies.UNHANDLED;
+        }
+    }
+}
\ No newline at end of file
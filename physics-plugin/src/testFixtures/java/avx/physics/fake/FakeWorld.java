@@ -0,0 +1,615 @@
+package avx.physics.fake;
+
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongObjectHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.FallingBlock;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * In-memory voxel world behind a Bukkit {@link World}.
+ *
+ * Blocks are stored per chunk column and default to air; every chunk counts
+ * as loaded. Heightmaps and section emptiness are kept up to date as blocks
+ * change, so the structure index sees the same shortcuts as on a server.
+ * Particles and sounds are only counted. Players only stand somewhere, so
+ * the plugin can tell which effects anyone would see.
+ */
+public final class FakeWorld {
+    
+    private static final Map<Material, BlockData> BLOCK_DATA = new EnumMap<>(Material.class);
+    
+    private final FakeServer server;
+    private final UUID id;
+    private final String name;
+    private final int minHeight;
+    private final int maxHeight;
+    private final World world;
+    private final LongObjectHashMap<ChunkColumn> chunks = new LongObjectHashMap<>();
+    private final List<FakeEntity> entities = new ArrayList<>();
+    private final List<Player> players = new ArrayList<>();
+    
+    private long particlesSpawned;
+    private long soundsPlayed;
+    private long fallingBlocksSpawned;
+    private long fallingBlocksLanded;
+    
+    FakeWorld(FakeServer server, String name, int minHeight, int maxHeight) {
+        this.server = server;
+        this.id = UUID.nameUUIDFromBytes(name.getBytes());
+        this.name = name;
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.world = Proxies.create(World.class, this, this::invoke);
+    }
+    
+    /**
+     * The fake world behind a world created by {@link FakeServer}
+     */
+    public static FakeWorld of(World world) {
+        return (FakeWorld) Proxies.ownerOf(world);
+    }
+    
+    static BlockData blockData(Material material) {
+        synchronized (BLOCK_DATA) {
+            return BLOCK_DATA.computeIfAbsent(material, type -> Proxies.create(BlockData.class, type, (method, args) -> {
+                switch (method) {
+                    case "getMaterial":
+                    case "getPlacementMaterial":
+                        return type;
+                    case "clone":
+                        return blockData(type);
+                    case "getAsString":
+                        return "minecraft:" + type.name().toLowerCase();
+                    default:
+                        return Proxies.UNHANDLED;
+                }
+            }));
+        }
+    }
+    
+    public World getWorld() {
+        return world;
+    }
+    
+    public FakeServer getServer() {
+        return server;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getMinHeight() {
+        return minHeight;
+    }
+    
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+    
+    public Material getType(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return Material.VOID_AIR;
+        }
+        ChunkColumn chunk = chunks.get(BlockKey.chunkKey(x >> 4, z >> 4));
+        return chunk == null ? Material.AIR : chunk.get(x & 15, y - minHeight, z & 15);
+    }
+    
+    public Material getType(long key) {
+        return getType(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key));
+    }
+    
+    /**
+     * Change a block without any events, like a world generator would
+     */
+    public void setType(int x, int y, int z, Material material) {
+        if (y < minHeight || y >= maxHeight) {
+            throw new IllegalArgumentException("Block outside of the world height: " + y);
+        }
+        ChunkColumn chunk = chunks.get(BlockKey.chunkKey(x >> 4, z >> 4));
+        if (chunk == null) {
+            if (material.isAir()) {
+                return;
+            }
+            chunk = new ChunkColumn(x >> 4, z >> 4);
+            chunks.put(BlockKey.chunkKey(x >> 4, z >> 4), chunk);
+        }
+        chunk.set(x & 15, y - minHeight, z & 15, material);
+    }
+    
+    public void setType(long key, Material material) {
+        setType(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key), material);
+    }
+    
+    /**
+     * Fill the box between two corners, both inclusive
+     */
+    public void fill(int x1, int y1, int z1, int x2, int y2, int z2, Material material) {
+        for (int y = Math.min(y1, y2); y <= Math.max(y1, y2); y++) {
+            for (int z = Math.min(z1, z2); z <= Math.max(z1, z2); z++) {
+                for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++) {
+                    setType(x, y, z, material);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Number of blocks of the given type in the whole world
+     */
+    public int count(Material material) {
+        int count = 0;
+        for (long key : chunks.keys()) {
+            for (Material type : chunks.get(key).blocks) {
+                if (type == material) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    public int getHighestBlockY(int x, int z) {
+        ChunkColumn chunk = chunks.get(BlockKey.chunkKey(x >> 4, z >> 4));
+        return chunk == null ? minHeight - 1 : chunk.heights[((z & 15) << 4) | (x & 15)] + minHeight;
+    }
+    
+    public Block getBlockAt(int x, int y, int z) {
+        return new FakeBlock(this, x, y, z).block;
+    }
+    
+    public List<FakeEntity> getEntities() {
+        return entities;
+    }
+    
+    /**
+     * Add a player standing still at a position
+     */
+    public Player addPlayer(double x, double y, double z) {
+        Location location = new Location(world, x, y, z);
+        UUID playerId = UUID.nameUUIDFromBytes((name + "/player" + players.size()).getBytes());
+        Player player = Proxies.create(Player.class, playerId, (method, args) -> {
+            switch (method) {
+                case "getLocation":
+                    if (args.length == 1) {
+                        Location target = (Location) args[0];
+                        target.setWorld(world);
+                        target.setX(x);
+                        target.setY(y);
+                        target.setZ(z);
+                        return target;
+                    }
+                    return location.clone();
+                case "getWorld":
+                    return world;
+                case "getUniqueId":
+                    return playerId;
+                case "isValid":
+                case "isOnline":
+                    return true;
+                default:
+                    return Proxies.UNHANDLED;
+            }
+        });
+        players.add(player);
+        return player;
+    }
+    
+    public long getParticlesSpawned() {
+        return particlesSpawned;
+    }
+    
+    public long getSoundsPlayed() {
+        return soundsPlayed;
+    }
+    
+    public long getFallingBlocksSpawned() {
+        return fallingBlocksSpawned;
+    }
+    
+    /**
+     * Number of falling blocks that turned back into a block
+     */
+    public long getFallingBlocksLanded() {
+        return fallingBlocksLanded;
+    }
+    
+    /**
+     * Number of falling blocks still in the air
+     */
+    public int getFallingCount() {
+        int count = 0;
+        for (FakeEntity entity : entities) {
+            if (entity.isValid()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Hash of every block in the world, equal for worlds with the same
+     * blocks whatever order they were placed in
+     */
+    public long checksum() {
+        long[] keys = chunks.keys();
+        Arrays.sort(keys);
+        long hash = 1125899906842597L;
+        for (long key : keys) {
+            long chunkHash = key;
+            boolean empty = true;
+            for (Material type : chunks.get(key).blocks) {
+                chunkHash = 31 * chunkHash + type.ordinal();
+                empty &= type.isAir();
+            }
+            // A chunk that was emptied hashes like one never touched
+            if (!empty) {
+                hash = 31 * hash + chunkHash;
+            }
+        }
+        return hash;
+    }
+    
+    /**
+     * Move every entity one tick and place the falling blocks that landed
+     */
+    void tickEntities() {
+        // Handlers of the landing event may spawn more entities
+        for (FakeEntity entity : new ArrayList<>(entities)) {
+            if (entity.isValid() && entity.tick()) {
+                land(entity);
+            }
+        }
+        entities.removeIf(entity -> !entity.isValid());
+    }
+    
+    /**
+     * Turn a falling block back into a block where it stands, if the space is
+     * free and no event handler objects; otherwise it is dropped
+     */
+    private void land(FakeEntity entity) {
+        Location location = entity.getLocation();
+        Block block = getBlockAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if (block.getType().isAir()) {
+            EntityChangeBlockEvent event = server.getPluginManager().callEvent(
+                    new EntityChangeBlockEvent(entity.getEntity(), block, entity.getBlockData()));
+            if (!event.isCancelled()) {
+                block.setType(entity.getBlockData().getMaterial());
+                fallingBlocksLanded++;
+            }
+        }
+        entity.remove();
+    }
+    
+    private Object invoke(String method, Object[] args) {
+        switch (method) {
+            case "getUID":
+                return id;
+            case "getName":
+                return name;
+            case "getMinHeight":
+                return minHeight;
+            case "getMaxHeight":
+                return maxHeight;
+            case "getType":
+                return args[0] instanceof Location
+                        ? toBlock((Location) args[0]).getType()
+                        : getType((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            case "getBlockAt":
+                return args[0] instanceof Location
+                        ? toBlock((Location) args[0])
+                        : getBlockAt((Integer) args[0], (Integer) args[1], (Integer) args[2]);
+            case "getBlockData":
+                return args[0] instanceof Location
+                        ? toBlock((Location) args[0]).getBlockData()
+                        : blockData(getType((Integer) args[0], (Integer) args[1], (Integer) args[2]));
+            case "isChunkLoaded":
+            case "isChunkGenerated":
+                return true;
+            case "getChunkAt":
+                if (args[0] instanceof Location) {
+                    Location location = (Location) args[0];
+                    return chunk(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+                }
+                if (args[0] instanceof Block) {
+                    Block at = (Block) args[0];
+                    return chunk(at.getX() >> 4, at.getZ() >> 4);
+                }
+                return chunk((Integer) args[0], (Integer) args[1]);
+            case "getLoadedChunks":
+                long[] keys = chunks.keys();
+                Chunk[] loaded = new Chunk[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    ChunkColumn column = chunks.get(keys[i]);
+                    loaded[i] = chunk(column.chunkX, column.chunkZ);
+                }
+                return loaded;
+            case "getHighestBlockYAt":
+                if (args[0] instanceof Location) {
+                    Location location = (Location) args[0];
+                    return getHighestBlockY(location.getBlockX(), location.getBlockZ());
+                }
+                return getHighestBlockY((Integer) args[0], (Integer) args[1]);
+            case "spawnFallingBlock":
+                Location location = ((Location) args[0]).clone();
+                BlockData data = args[1] instanceof BlockData ? (BlockData) args[1] : blockData((Material) args[1]);
+                FakeEntity entity = new FakeEntity(this, location, data);
+                if (server.getPluginManager().callEvent(new EntitySpawnEvent(entity.getEntity())).isCancelled()) {
+                    entity.remove();
+                } else {
+                    entities.add(entity);
+                    fallingBlocksSpawned++;
+                }
+                return entity.getEntity();
+            case "getEntities":
+            case "getLivingEntities":
+                List<Entity> list = new ArrayList<>();
+                for (FakeEntity each : entities) {
+                    if (each.isValid()) {
+                        list.add(each.getEntity());
+                    }
+                }
+                return method.equals("getEntities") ? list : new ArrayList<>();
+            case "getEntitiesByClass":
+                List<FallingBlock> falling = new ArrayList<>();
+                if (((Class<?>) args[0]).isAssignableFrom(FallingBlock.class)) {
+                    for (FakeEntity each : entities) {
+                        if (each.isValid()) {
+                            falling.add(each.getEntity());
+                        }
+                    }
+                }
+                return falling;
+            case "getEntity":
+                for (FakeEntity each : entities) {
+                    if (each.getUniqueId().equals(args[0]) && each.isValid()) {
+                        return each.getEntity();
+                    }
+                }
+                return null;
+            case "spawnParticle":
+                particlesSpawned += (Integer) args[args[1] instanceof Location ? 2 : 4];
+                return null;
+            case "playSound":
+                soundsPlayed++;
+                return null;
+            case "getPlayers":
+                return new ArrayList<>(players);
+            case "getViewDistance":
+            case "getSimulationDistance":
+                return 10;
+            default:
+                return Proxies.UNHANDLED;
+        }
+    }
+    
+    private Block toBlock(Location location) {
+        return getBlockAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    private Chunk chunk(int chunkX, int chunkZ) {
+        long key = BlockKey.chunkKey(chunkX, chunkZ);
+        return Proxies.create(Chunk.class, Arrays.asList(this, key), (method, args) -> {
+            switch (method) {
+                case "getX":
+                    return chunkX;
+                case "getZ":
+                    return chunkZ;
+                case "getWorld":
+                    return world;
+                case "getChunkKey":
+                    return key;
+                case "isLoaded":
+                case "isGenerated":
+                    return true;
+                case "getBlock":
+                    return getBlockAt((chunkX << 4) + (Integer) args[0], (Integer) args[1], (chunkZ << 4) + (Integer) args[2]);
+                case "getChunkSnapshot":
+                    return snapshot(chunkX, chunkZ);
+                default:
+                    return Proxies.UNHANDLED;
+            }
+        });
+    }
+    
+    /**
+     * Copy of a chunk column, like the snapshot a server would take
+     */
+    private ChunkSnapshot snapshot(int chunkX, int chunkZ) {
+        ChunkColumn live = chunks.get(BlockKey.chunkKey(chunkX, chunkZ));
+        ChunkColumn copy = live == null ? new ChunkColumn(chunkX, chunkZ) : live.copy();
+        return Proxies.create(ChunkSnapshot.class, copy, (method, args) -> {
+            switch (method) {
+                case "getX":
+                    return chunkX;
+                case "getZ":
+                    return chunkZ;
+                case "getWorldName":
+                    return name;
+                case "getBlockType":
+                    return copy.get((Integer) args[0], (Integer) args[1] - minHeight, (Integer) args[2]);
+                case "getBlockData":
+                    return blockData(copy.get((Integer) args[0], (Integer) args[1] - minHeight, (Integer) args[2]));
+                case "getHighestBlockYAt":
+                    return copy.heights[((Integer) args[1] << 4) | (Integer) args[0]] + minHeight;
+                case "isSectionEmpty":
+                    int section = (Integer) args[0];
+                    return section < 0 || section >= copy.sectionCounts.length || copy.sectionCounts[section] == 0;
+                default:
+                    return Proxies.UNHANDLED;
+            }
+        });
+    }
+    
+    /**
+     * Blocks of one chunk column, indexed by (y - minHeight, z, x)
+     */
+    private final class ChunkColumn {
+        
+        final int chunkX;
+        final int chunkZ;
+        final Material[] blocks;
+        
+        /** Highest non-air y per column relative to minHeight, -1 for none */
+        final int[] heights;
+        
+        /** Non-air blocks per section */
+        final int[] sectionCounts;
+        
+        ChunkColumn(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.blocks = new Material[(maxHeight - minHeight) << 8];
+            this.heights = new int[256];
+            this.sectionCounts = new int[(maxHeight - minHeight + 15) >> 4];
+            Arrays.fill(blocks, Material.AIR);
+            Arrays.fill(heights, -1);
+        }
+        
+        private ChunkColumn(ChunkColumn other) {
+            this.chunkX = other.chunkX;
+            this.chunkZ = other.chunkZ;
+            this.blocks = other.blocks.clone();
+            this.heights = other.heights.clone();
+            this.sectionCounts = other.sectionCounts.clone();
+        }
+        
+        ChunkColumn copy() {
+            return new ChunkColumn(this);
+        }
+        
+        Material get(int x, int y, int z) {
+            if (y < 0 || y >= maxHeight - minHeight) {
+                return Material.VOID_AIR;
+            }
+            return blocks[(y << 8) | (z << 4) | x];
+        }
+        
+        void set(int x, int y, int z, Material material) {
+            int index = (y << 8) | (z << 4) | x;
+            Material previous = blocks[index];
+            blocks[index] = material;
+            
+            if (previous.isAir() != material.isAir()) {
+                sectionCounts[y >> 4] += material.isAir() ? -1 : 1;
+            }
+            
+            int column = (z << 4) | x;
+            if (!material.isAir() && y > heights[column]) {
+                heights[column] = y;
+            } else if (material.isAir() && y == heights[column]) {
+                int top = y - 1;
+                while (top >= 0 && blocks[(top << 8) | column].isAir()) {
+                    top--;
+                }
+                heights[column] = top;
+            }
+        }
+    }
+    
+    /**
+     * Position of a block, the owner of the {@link Block} proxies
+     */
+    private static final class FakeBlock {
+        
+        final FakeWorld world;
+        final int x;
+        final int y;
+        final int z;
+        final Block block;
+        
+        FakeBlock(FakeWorld world, int x, int y, int z) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.block = Proxies.create(Block.class, this, this::invoke);
+        }
+        
+        private Object invoke(String method, Object[] args) {
+            switch (method) {
+                case "getType":
+                    return world.getType(x, y, z);
+                case "getBlockData":
+                    return blockData(world.getType(x, y, z));
+                case "setType":
+                    world.setType(x, y, z, (Material) args[0]);
+                    return null;
+                case "setBlockData":
+                    world.setType(x, y, z, ((BlockData) args[0]).getMaterial());
+                    return null;
+                case "isEmpty":
+                    return world.getType(x, y, z).isAir();
+                case "getX":
+                    return x;
+                case "getY":
+                    return y;
+                case "getZ":
+                    return z;
+                case "getBlockKey":
+                    return BlockKey.pack(x, y, z);
+                case "getWorld":
+                    return world.world;
+                case "getLocation":
+                    if (args.length == 1) {
+                        Location target = (Location) args[0];
+                        target.setWorld(world.world);
+                        target.setX(x);
+                        target.setY(y);
+                        target.setZ(z);
+                        return target;
+                    }
+                    return new Location(world.world, x, y, z);
+                case "getChunk":
+                    return world.chunk(x >> 4, z >> 4);
+                case "getRelative":
+                    if (args[0] instanceof BlockFace) {
+                        BlockFace face = (BlockFace) args[0];
+                        int distance = args.length > 1 ? (Integer) args[1] : 1;
+                        return world.getBlockAt(x + face.getModX() * distance, y + face.getModY() * distance, z + face.getModZ() * distance);
+                    }
+                    return world.getBlockAt(x + (Integer) args[0], y + (Integer) args[1], z + (Integer) args[2]);
+                default:
+                    return Proxies.UNHANDLED;
+            }
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FakeBlock)) {
+                return false;
+            }
+            FakeBlock that = (FakeBlock) other;
+            return world == that.world && x == that.x && y == that.y && z == that.z;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(world.name, x, y, z);
+        }
+        
+        @Override
+        public String toString() {
+            return "FakeBlock{" + world.name + " " + x + "," + y + "," + z + "}";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package avx.physics.fake;
+
+import avx.physics.PhysicsPlugin;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The physics plugin running on a {@link FakeServer}.
+ *
+ * Managers, configuration and listeners are set up as in onEnable; commands
+ * are not. The plugin tasks, including the physics loop, only run once
+ * {@link #start()} is called, so benchmarks can drive the managers directly.
+ *
+ * Time as seen by the plugin is server time: it moves 50 ms with every tick
+ * and stands still within one, so tick sampling and the physics budget do
+ * not depend on how fast the machine is.
+ */
+public final class HeadlessPhysicsPlugin extends PhysicsPlugin {
+    
+    private final FakeServer server;
+    
+    /** Survival player without permissions, who breaks the blocks */
+    private final Player player = Proxies.create(Player.class, "Player", (method, args) -> {
+        switch (method) {
+            case "getName":
+                return "Player";
+            case "getGameMode":
+                return GameMode.SURVIVAL;
+            default:
+                return Proxies.UNHANDLED;
+        }
+    });
+    
+    @SuppressWarnings("deprecation")
+    private HeadlessPhysicsPlugin(FakeServer server, File dataFolder) {
+        super(new JavaPluginLoader(server.getServer()),
+                new PluginDescriptionFile("RealisticPhysics", "1.0", PhysicsPlugin.class.getName()),
+                dataFolder, new File(dataFolder, "RealisticPhysics.jar"));
+        this.server = server;
+    }
+    
+    /**
+     * Create the plugin with the default configuration
+     */
+    public static HeadlessPhysicsPlugin create(FakeServer server) {
+        return create(server, Map.of());
+    }
+    
+    /**
+     * Create the plugin with the default configuration changed by the given
+     * values, keyed by config path
+     */
+    public static HeadlessPhysicsPlugin create(FakeServer server, Map<String, Object> config) {
+        File dataFolder;
+        try {
+            dataFolder = Files.createTempDirectory("physics").toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dataFolder.deleteOnExit();
+        
+        HeadlessPhysicsPlugin plugin = new HeadlessPhysicsPlugin(server, dataFolder);
+        plugin.saveDefaultConfig();
+        config.forEach(plugin.getConfig()::set);
+        plugin.saveConfig();
+        new File(dataFolder, "config.yml").deleteOnExit();
+        
+        plugin.createManagers();
+        plugin.registerListeners();
+        return plugin;
+    }
+    
+    /**
+     * Schedule the plugin tasks, so the physics loop runs as the server ticks
+     */
+    public void start() {
+        startTasks();
+    }
+    
+    @Override
+    public long nanoTime() {
+        return server.getCurrentTick() * 50_000_000L;
+    }
+    
+    /**
+     * Break a block the way a player would: the break event is handled first,
+     * then the block turns into air unless the event was cancelled
+     */
+    public void breakBlock(Block block) {
+        if (!server.getPluginManager().callEvent(new BlockBreakEvent(block, player)).isCancelled()) {
+            block.setType(Material.AIR);
+        }
+    }
+    
+    /**
+     * Blow up blocks the way primed TNT would: one explode event for all of
+     * them, then every block left in its list turns into air unless the
+     * event was cancelled
+     */
+    public void explode(Location center, List<Block> blocks) {
+        Entity tnt = Proxies.create(Entity.class, "TNT", (method, args) -> {
+            switch (method) {
+                case "getType":
+                    return EntityType.PRIMED_TNT;
+                case "getLocation":
+                    return center.clone();
+                case "getWorld":
+                    return center.getWorld();
+                default:
+                    return Proxies.UNHANDLED;
+            }
+        });
+        EntityExplodeEvent event = new EntityExplodeEvent(tnt, center, new ArrayList<>(blocks), 1.0f);
+        if (!server.getPluginManager().callEvent(event).isCancelled()) {
+            for (Block block : event.blockList()) {
+                block.setType(Material.AIR);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package avx.physics.fake;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the Bukkit interface implementations of the fake server.
+ *
+ * Each proxy forwards to a handler that answers the methods the plugin
+ * uses by name; everything else returns a default value, so the fakes keep
+ * working as the API grows. Proxies compare equal when their owners do.
+ */
+final class Proxies {
+    
+    /** Returned by a handler for methods it does not implement */
+    static final Object UNHANDLED = new Object();
+    
+    private static final Object[] NO_ARGS = new Object[0];
+    
+    @FunctionalInterface
+    interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+    
+    private Proxies() {
+    }
+    
+    static <T> T create(Class<T> type, Object owner, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new Dispatcher(owner, handler)));
+    }
+    
+    /**
+     * The object a proxy was created for, or null if it is not one of ours
+     */
+    static Object ownerOf(Object proxy) {
+        if (proxy == null || !Proxy.isProxyClass(proxy.getClass())) {
+            return null;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(proxy);
+        return handler instanceof Dispatcher ? ((Dispatcher) handler).owner : null;
+    }
+    
+    private static Object defaultValue(Class<?> type) {
+        if (type.isPrimitive() && type != void.class) {
+            // Zero of the primitive type
+            return Array.get(Array.newInstance(type, 1), 0);
+        }
+        if (type == List.class || type == Collection.class) {
+            return Collections.emptyList();
+        }
+        if (type == Set.class) {
+            return Collections.emptySet();
+        }
+        if (type == Map.class) {
+            return Collections.emptyMap();
+        }
+        return null;
+    }
+    
+    private static final class Dispatcher implements InvocationHandler {
+        
+        private final Object owner;
+        private final Handler handler;
+        
+        Dispatcher(Object owner, Handler handler) {
+            this.owner = owner;
+            this.handler = handler;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Object[] arguments = args == null ? NO_ARGS : args;
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                switch (name) {
+                    case "equals":
+                        return owner.equals(ownerOf(arguments[0]));
+                    case "hashCode":
+                        return owner.hashCode();
+                    default:
+                        return owner.toString();
+                }
+            }
+            
+            Object result = handler.invoke(name, arguments);
+            return result == UNHANDLED ? defaultValue(method.getReturnType()) : result;
+        }
+    }
+}
\ No newline at end of file
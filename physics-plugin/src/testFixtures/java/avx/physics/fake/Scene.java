@@ -0,0 +1,270 @@
+package avx.physics.fake;
+
+import avx.physics.data.BlockKey;
+import avx.physics.utils.LongHashSet;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A structure built in a {@link FakeWorld}, with a block to ask about and
+ * the blocks whose removal makes it collapse.
+ *
+ * Scenes are read from a small line based format. Blank lines and lines
+ * starting with # are ignored; every other line is one command:
+ * <pre>
+ * height &lt;minY&gt; &lt;maxY&gt;                  world height, before any block (default 0 256)
+ * fill &lt;x1 y1 z1 x2 y2 z2&gt; &lt;MATERIAL&gt;    fill a box, corners inclusive
+ * set &lt;x y z&gt; &lt;MATERIAL&gt;                set one block
+ * sphere &lt;x y z radius&gt; &lt;MATERIAL&gt;      fill a ball
+ * probe &lt;x y z&gt;                         the block whose support the scene is about
+ * trigger &lt;x1 y1 z1 x2 y2 z2&gt;            add the blocks of a box to the trigger
+ * trigger-sphere &lt;x y z radius&gt;          add the blocks of a ball to the trigger
+ * </pre>
+ * Trigger positions that are air once the scene is built are left out.
+ * The built-in scenes are in the scenes resource folder.
+ */
+public final class Scene {
+    
+    /** Built-in scenes accepted by {@link #create} */
+    public static final String[] NAMES = {"tower", "bridge", "cantilever", "crater"};
+    
+    private final String name;
+    private final FakeWorld world;
+    private final long probe;
+    private final long[] trigger;
+    
+    private Scene(String name, FakeWorld world, long probe, long[] trigger) {
+        this.name = name;
+        this.world = world;
+        this.probe = probe;
+        this.trigger = trigger;
+    }
+    
+    /**
+     * Build one of the built-in scenes in a new world named after it
+     */
+    public static Scene create(FakeServer server, String name) {
+        InputStream resource = Scene.class.getResourceAsStream("/scenes/" + name + ".scene");
+        if (resource == null) {
+            throw new IllegalArgumentException("Unknown scene: " + name);
+        }
+        try (Reader reader = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+            return load(server, name, reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Build a scene from its description in a new world of the given name
+     *
+     * @throws IllegalArgumentException if a line is not a valid command
+     */
+    public static Scene load(FakeServer server, String name, Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        FakeWorld world = null;
+        int minY = 0;
+        int maxY = 256;
+        long probe = 0;
+        boolean hasProbe = false;
+        LongHashSet trigger = new LongHashSet();
+        List<Long> triggerOrder = new ArrayList<>();
+        
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] words = line.split("\\s+");
+            try {
+                switch (words[0]) {
+                    case "height":
+                        if (world != null) {
+                            throw new IllegalArgumentException("height must come before any block");
+                        }
+                        expect(words, 3);
+                        minY = Integer.parseInt(words[1]);
+                        maxY = Integer.parseInt(words[2]);
+                        break;
+                    case "fill":
+                        expect(words, 8);
+                        world = world != null ? world : server.createWorld(name, minY, maxY);
+                        world.fill(integer(words, 1), integer(words, 2), integer(words, 3),
+                                integer(words, 4), integer(words, 5), integer(words, 6), material(words[7]));
+                        break;
+                    case "set":
+                        expect(words, 5);
+                        world = world != null ? world : server.createWorld(name, minY, maxY);
+                        world.setType(integer(words, 1), integer(words, 2), integer(words, 3), material(words[4]));
+                        break;
+                    case "sphere":
+                        expect(words, 6);
+                        world = world != null ? world : server.createWorld(name, minY, maxY);
+                        Material material = material(words[5]);
+                        for (long key : sphere(integer(words, 1), integer(words, 2), integer(words, 3), integer(words, 4))) {
+                            world.setType(key, material);
+                        }
+                        break;
+                    case "probe":
+                        expect(words, 4);
+                        probe = BlockKey.pack(integer(words, 1), integer(words, 2), integer(words, 3));
+                        hasProbe = true;
+                        break;
+                    case "trigger":
+                        expect(words, 7);
+                        addAll(trigger, triggerOrder, box(integer(words, 1), integer(words, 2), integer(words, 3),
+                                integer(words, 4), integer(words, 5), integer(words, 6)));
+                        break;
+                    case "trigger-sphere":
+                        expect(words, 5);
+                        addAll(trigger, triggerOrder, sphere(integer(words, 1), integer(words, 2), integer(words, 3), integer(words, 4)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown command " + words[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Scene " + name + " line " + number + ": not a number: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Scene " + name + " line " + number + ": " + e.getMessage());
+            }
+        }
+        
+        if (world == null) {
+            world = server.createWorld(name, minY, maxY);
+        }
+        if (!hasProbe) {
+            throw new IllegalArgumentException("Scene " + name + " has no probe");
+        }
+        
+        FakeWorld built = world;
+        long[] keys = triggerOrder.stream()
+                .mapToLong(Long::longValue)
+                .filter(key -> !built.getType(key).isAir())
+                .toArray();
+        return new Scene(name, world, probe, keys);
+    }
+    
+    private static void expect(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException(words[0] + " takes " + (count - 1) + " arguments");
+        }
+    }
+    
+    private static int integer(String[] words, int index) {
+        return Integer.parseInt(words[index]);
+    }
+    
+    private static Material material(String name) {
+        Material material = Material.matchMaterial(name);
+        if (material == null) {
+            throw new IllegalArgumentException("unknown material " + name);
+        }
+        return material;
+    }
+    
+    private static void addAll(LongHashSet seen, List<Long> order, long[] keys) {
+        for (long key : keys) {
+            if (seen.add(key)) {
+                order.add(key);
+            }
+        }
+    }
+    
+    private static long[] box(int x1, int y1, int z1, int x2, int y2, int z2) {
+        List<Long> keys = new ArrayList<>();
+        for (int y = Math.min(y1, y2); y <= Math.max(y1, y2); y++) {
+            for (int z = Math.min(z1, z2); z <= Math.max(z1, z2); z++) {
+                for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++) {
+                    keys.add(BlockKey.pack(x, y, z));
+                }
+            }
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    private static long[] sphere(int centerX, int centerY, int centerZ, int radius) {
+        List<Long> keys = new ArrayList<>();
+        for (int y = -radius; y <= radius; y++) {
+            for (int z = -radius; z <= radius; z++) {
+                for (int x = -radius; x <= radius; x++) {
+                    if (x * x + y * y + z * z <= radius * radius) {
+                        keys.add(BlockKey.pack(centerX + x, centerY + y, centerZ + z));
+                    }
+                }
+            }
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public FakeWorld getWorld() {
+        return world;
+    }
+    
+    /**
+     * Packed key of the block whose support the scene is about
+     */
+    public long getProbe() {
+        return probe;
+    }
+    
+    /**
+     * Packed keys of the blocks to break to set off the collapse
+     */
+    public long[] getTrigger() {
+        return trigger.clone();
+    }
+    
+    /**
+     * Turn the trigger blocks into air without telling the plugin
+     */
+    public void cut() {
+        for (long key : trigger) {
+            world.setType(key, Material.AIR);
+        }
+    }
+    
+    /**
+     * Break the trigger blocks through the plugin, as a player would
+     */
+    public void trigger(HeadlessPhysicsPlugin plugin) {
+        for (long key : trigger) {
+            plugin.breakBlock(world.getBlockAt(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key)));
+        }
+    }
+    
+    /**
+     * Blow up the trigger blocks through the plugin, as one explosion
+     * centered on their average position
+     */
+    public void explode(HeadlessPhysicsPlugin plugin) {
+        List<Block> blocks = new ArrayList<>(trigger.length);
+        double x = 0;
+        double y = 0;
+        double z = 0;
+        for (long key : trigger) {
+            blocks.add(world.getBlockAt(BlockKey.getX(key), BlockKey.getY(key), BlockKey.getZ(key)));
+            x += BlockKey.getX(key) + 0.5;
+            y += BlockKey.getY(key) + 0.5;
+            z += BlockKey.getZ(key) + 0.5;
+        }
+        plugin.explode(new Location(world.getWorld(), x / trigger.length, y / trigger.length, z / trigger.length), blocks);
+    }
+}
\ No newline at end of file
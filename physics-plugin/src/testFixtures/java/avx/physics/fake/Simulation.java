@@ -0,0 +1,242 @@
+package avx.physics.fake;
+
+import avx.physics.data.BlockKey;
+import avx.physics.managers.PhysicsManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs a collapse scene from the trigger until the plugin has nothing left
+ * to do, tick by tick on a {@link FakeServer}.
+ *
+ * The plugin only sees server time (see {@link HeadlessPhysicsPlugin}), so
+ * the same scene and configuration always end in the same world, with the
+ * same number of checks and falls. Only the wall clock time varies.
+ */
+public final class Simulation {
+    
+    /**
+     * Changes to the default configuration every simulation starts from: the
+     * physics loop runs every tick with large batches, so collapses settle in
+     * hundreds rather than thousands of ticks
+     */
+    public static final Map<String, Object> DEFAULT_CONFIG = Map.of(
+            "physics.check-interval", 1,
+            "physics.max-blocks-per-tick", 500);
+    
+    /** Ticks after which a scene that is still busy counts as not settled */
+    public static final int DEFAULT_MAX_TICKS = 6000;
+    
+    private final String sceneName;
+    private final Map<String, Object> config = new HashMap<>(DEFAULT_CONFIG);
+    private int maxTicks = DEFAULT_MAX_TICKS;
+    private boolean spectator = true;
+    private boolean explosion = false;
+    
+    private Simulation(String sceneName) {
+        this.sceneName = sceneName;
+    }
+    
+    /**
+     * Simulation of one of the built-in scenes of {@link Scene}
+     */
+    public static Simulation of(String sceneName) {
+        return new Simulation(sceneName);
+    }
+    
+    /**
+     * Change a configuration value, keyed by config path
+     */
+    public Simulation config(String path, Object value) {
+        config.put(path, value);
+        return this;
+    }
+    
+    public Simulation maxTicks(int maxTicks) {
+        this.maxTicks = maxTicks;
+        return this;
+    }
+    
+    /**
+     * Whether a player watches from the probe block of the scene, so effects
+     * are played. On by default.
+     */
+    public Simulation spectator(boolean spectator) {
+        this.spectator = spectator;
+        return this;
+    }
+    
+    /**
+     * Set off the trigger as one explosion instead of breaking its blocks
+     * one by one
+     */
+    public Simulation explode() {
+        this.explosion = true;
+        return this;
+    }
+    
+    /**
+     * Build the scene on a fresh server, break the trigger blocks and tick
+     * until no check is pending or scheduled and no block is falling for a
+     * few physics rounds in a row
+     */
+    public Result run() {
+        FakeServer server = FakeServer.install();
+        HeadlessPhysicsPlugin plugin = HeadlessPhysicsPlugin.create(server, config);
+        Scene scene = Scene.create(server, sceneName);
+        FakeWorld world = scene.getWorld();
+        PhysicsManager physics = plugin.getPhysicsManager();
+        if (spectator) {
+            long probe = scene.getProbe();
+            world.addPlayer(BlockKey.getX(probe) + 0.5, BlockKey.getY(probe), BlockKey.getZ(probe) + 0.5);
+        }
+        
+        long startTime = System.nanoTime();
+        if (explosion) {
+            scene.explode(plugin);
+        } else {
+            scene.trigger(plugin);
+        }
+        plugin.start();
+        
+        // A round may be skipped or have its result land on the next tick
+        int quietNeeded = plugin.getConfigManager().getCheckInterval() + 2;
+        int quiet = 0;
+        int ticks = 0;
+        int peakFalling = 0;
+        while (quiet < quietNeeded && ticks < maxTicks) {
+            server.tick();
+            ticks++;
+            peakFalling = Math.max(peakFalling, world.getFallingCount());
+            boolean idle = physics.getPendingChecksCount() == 0
+                    && physics.getScheduledChecksCount() == 0
+                    && world.getFallingCount() == 0;
+            quiet = idle ? quiet + 1 : 0;
+        }
+        long elapsed = System.nanoTime() - startTime;
+        
+        boolean settled = quiet >= quietNeeded;
+        return new Result(sceneName, settled, settled ? ticks - quiet : ticks, elapsed,
+                physics.getChecksEnqueued(), physics.getChecksProcessed(),
+                world.getFallingBlocksSpawned(), world.getFallingBlocksLanded(), peakFalling,
+                physics.getBlocksRelocated(), world.getParticlesSpawned(), world.getSoundsPlayed(), world.checksum());
+    }
+    
+    /**
+     * What happened in one simulation run
+     */
+    public static final class Result {
+        
+        private final String sceneName;
+        private final boolean settled;
+        private final int ticks;
+        private final long elapsedNanos;
+        private final long checksEnqueued;
+        private final long checksProcessed;
+        private final long blocksFallen;
+        private final long blocksLanded;
+        private final int peakFalling;
+        private final long blocksRelocated;
+        private final long particles;
+        private final long sounds;
+        private final long checksum;
+        
+        Result(String sceneName, boolean settled, int ticks, long elapsedNanos,
+               long checksEnqueued, long checksProcessed, long blocksFallen, long blocksLanded,
+               int peakFalling, long blocksRelocated, long particles, long sounds, long checksum) {
+            this.sceneName = sceneName;
+            this.settled = settled;
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+            this.checksEnqueued = checksEnqueued;
+            this.checksProcessed = checksProcessed;
+            this.blocksFallen = blocksFallen;
+            this.blocksLanded = blocksLanded;
+            this.peakFalling = peakFalling;
+            this.blocksRelocated = blocksRelocated;
+            this.particles = particles;
+            this.sounds = sounds;
+            this.checksum = checksum;
+        }
+        
+        public String getSceneName() {
+            return sceneName;
+        }
+        
+        /**
+         * Whether the scene came to rest before the tick limit
+         */
+        public boolean isSettled() {
+            return settled;
+        }
+        
+        /**
+         * Ticks until the last activity, or the tick limit if it never settled
+         */
+        public int getTicks() {
+            return ticks;
+        }
+        
+        /**
+         * Wall clock time of the run. Unlike everything else here it differs
+         * between runs.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        
+        public long getChecksEnqueued() {
+            return checksEnqueued;
+        }
+        
+        public long getChecksProcessed() {
+            return checksProcessed;
+        }
+        
+        public long getBlocksFallen() {
+            return blocksFallen;
+        }
+        
+        public long getBlocksLanded() {
+            return blocksLanded;
+        }
+        
+        /**
+         * Most falling block entities in the air at the end of a tick
+         */
+        public int getPeakFalling() {
+            return peakFalling;
+        }
+        
+        /**
+         * Blocks moved without an entity because the entity budget was used up
+         */
+        public long getBlocksRelocated() {
+            return blocksRelocated;
+        }
+        
+        public long getParticles() {
+            return particles;
+        }
+        
+        public long getSounds() {
+            return sounds;
+        }
+        
+        /**
+         * Checksum of every block of the scene world at the end of the run
+         */
+        public long getChecksum() {
+            return checksum;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s: %s after %d ticks, %d checks processed of %d enqueued, "
+                            + "%d blocks fell, %d landed, %d at most in the air, %d moved without entity, %d particles, %d sounds, checksum %016x, %.1f ms",
+                    sceneName, settled ? "settled" : "still busy", ticks, checksProcessed, checksEnqueued,
+                    blocksFallen, blocksLanded, peakFalling, blocksRelocated, particles, sounds, checksum, elapsedNanos / 1e6);
+        }
+    }
+}
\ No newline at end of file